@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.benchmark;
+
+import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
+import com.stuntguy3000.lifxlansdk.messages.set.light.SetColor;
+import com.stuntguy3000.lifxlansdk.messages.set.tile.Set64;
+import com.stuntguy3000.lifxlansdk.messages.state.multizone.StateExtendedColorZones;
+import com.stuntguy3000.lifxlansdk.messages.state.tile.StateDeviceChain;
+import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.object.protocol.FrameAddress;
+import com.stuntguy3000.lifxlansdk.object.protocol.FrameHeader;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.object.protocol.ProtocolHeader;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding and decoding of packets, and of the largest messages
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private Packet setColorPacket;
+    private byte[] extendedColorZonesPacketBytes;
+    private byte[] extendedColorZonesBytes;
+    private byte[] deviceChainBytes;
+    private Color color;
+    private byte[] colorBytes;
+    private Set64 set64;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+
+        // Outbound
+        setColorPacket = packet(new SetColor(21845, 65535, 65535, 3500, 0));
+        color = new Color(random.nextInt(65536), random.nextInt(65536), random.nextInt(65536), 3500);
+        colorBytes = color.toBytes();
+
+        Color[] colors = new Color[64];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = new Color(random.nextInt(65536), 65535, 65535, 3500);
+        }
+        set64 = new Set64(0, 1, 0, 0, 8, 0, colors);
+
+        // Inbound
+        //  StateExtendedColorZones (512): zones_count, zone_index, colors_count, then 82 colors
+        ByteBuffer zones = ByteBuffer.allocate(661).order(ByteOrder.LITTLE_ENDIAN);
+        zones.putShort((short) 82).putShort((short) 0).put((byte) 82);
+        for (int i = 0; i < 82; i++) {
+            zones.putShort((short) random.nextInt(65536)).putShort((short) 65535).putShort((short) 65535).putShort((short) 3500);
+        }
+        extendedColorZonesBytes = zones.array();
+        extendedColorZonesPacketBytes = packet(new Payload(512, extendedColorZonesBytes)).toBytes();
+
+        //  StateDeviceChain (702): start_index, 16 tiles of 55 bytes, tile_devices_count
+        ByteBuffer chain = ByteBuffer.allocate(882).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 5; i++) {
+            int tile = 1 + i * 55;
+            chain.putFloat(tile + 8, i * 1.0f).putFloat(tile + 12, 0.0f);
+            chain.put(tile + 16, (byte) 8).put(tile + 17, (byte) 8);
+            chain.putInt(tile + 19, 1).putInt(tile + 23, 55);
+        }
+        chain.put(881, (byte) 5);
+        deviceChainBytes = chain.array();
+    }
+
+    @Benchmark
+    public byte[] packetToBytes() {
+        return setColorPacket.toBytes();
+    }
+
+    @Benchmark
+    public Packet buildPacket() {
+        return PacketHandler.buildPacket(extendedColorZonesPacketBytes);
+    }
+
+    @Benchmark
+    public byte[] colorToBytes() {
+        return color.toBytes();
+    }
+
+    @Benchmark
+    public Color colorDecodeBytes() {
+        Color decoded = new Color();
+        decoded.decodeBytes(colorBytes);
+
+        return decoded;
+    }
+
+    @Benchmark
+    public StateExtendedColorZones extendedColorZonesDecodeBytes() {
+        StateExtendedColorZones message = new StateExtendedColorZones();
+        message.decodeBytes(extendedColorZonesBytes);
+
+        return message;
+    }
+
+    @Benchmark
+    public StateDeviceChain deviceChainDecodeBytes() {
+        StateDeviceChain message = new StateDeviceChain();
+        message.decodeBytes(deviceChainBytes);
+
+        return message;
+    }
+
+    @Benchmark
+    public byte[] set64ToBytes() {
+        return set64.toBytes();
+    }
+
+    private static Packet packet(Message message) {
+        FrameAddress frameAddress = new FrameAddress();
+        frameAddress.setTarget("d0:73:d5:43:47:86");
+
+        ProtocolHeader protocolHeader = new ProtocolHeader();
+        protocolHeader.setType(message.getType());
+
+        return new Packet(new FrameHeader(), frameAddress, protocolHeader, message);
+    }
+
+    /**
+     * A message with a pre-encoded payload, standing in for a packet received from a device
+     */
+    private static class Payload extends Message {
+        private final byte[] payload;
+
+        Payload(int type, byte[] payload) {
+            super(type);
+            this.payload = payload;
+        }
+
+        @Override
+        public byte[] toBytes() {
+            return payload;
+        }
+    }
+}
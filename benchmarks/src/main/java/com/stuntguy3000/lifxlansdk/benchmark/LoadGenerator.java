@@ -0,0 +1,333 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.benchmark;
+
+import com.stuntguy3000.lifxlansdk.emulator.Emulator;
+import com.stuntguy3000.lifxlansdk.emulator.VirtualDevice;
+import com.stuntguy3000.lifxlansdk.handler.DeliveryMode;
+import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
+import com.stuntguy3000.lifxlansdk.handler.Transport;
+import com.stuntguy3000.lifxlansdk.helper.DeviceHelper;
+import com.stuntguy3000.lifxlansdk.messages.set.device.SetPower;
+import com.stuntguy3000.lifxlansdk.messages.set.light.SetColor;
+import com.stuntguy3000.lifxlansdk.messages.set.multizone.SetColorZones;
+import com.stuntguy3000.lifxlansdk.object.product.Device;
+import com.stuntguy3000.lifxlansdk.object.product.Light;
+import com.stuntguy3000.lifxlansdk.object.product.MultiZone;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneApplicationRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Drives a mix of Get and Set traffic at a fleet of emulated devices, and reports throughput, latency, retransmissions
+ * and unanswered requests
+ * <p>
+ * Traffic is closed-loop: a fixed amount of requests are kept in flight, each replaced by a request to a random device
+ * once it completes. The transport's pacing still applies per device, so throughput is bounded by the device count
+ * times the rate limit, as it would be on a real network.
+ * <p>
+ * Options are given as name=value (optionally prefixed with --), e.g.
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dexec.args="devices=300 duration=60 loss=0.01"
+ * </pre>
+ * <ul>
+ *     <li>devices: the amount of emulated lights (default 300)</li>
+ *     <li>multizones: how many of those are multizone strips (default 0)</li>
+ *     <li>duration: how long to drive traffic for, in seconds (default 30)</li>
+ *     <li>concurrency: the amount of requests kept in flight (default 64)</li>
+ *     <li>mix: the relative weight of each operation (default getColor=4,setColor=3,getPower=2,setPower=1); also
+ *     getZones and setZones, which only target multizones</li>
+ *     <li>latency, jitter: the emulated device response delay, in ms (default 0)</li>
+ *     <li>loss: the emulated chance a packet is dropped, in either direction (default 0)</li>
+ *     <li>rate: the transport rate limit per device, in messages per second, zero to disable (default 20)</li>
+ *     <li>seed: the seed for the emulated network and the traffic mix (default 1)</li>
+ * </ul>
+ */
+public class LoadGenerator {
+    private static final Map<String, String> DEFAULT_OPTIONS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_OPTIONS.put("devices", "300");
+        DEFAULT_OPTIONS.put("multizones", "0");
+        DEFAULT_OPTIONS.put("duration", "30");
+        DEFAULT_OPTIONS.put("concurrency", "64");
+        DEFAULT_OPTIONS.put("mix", "getColor=4,setColor=3,getPower=2,setPower=1");
+        DEFAULT_OPTIONS.put("latency", "0");
+        DEFAULT_OPTIONS.put("jitter", "0");
+        DEFAULT_OPTIONS.put("loss", "0");
+        DEFAULT_OPTIONS.put("rate", "20");
+        DEFAULT_OPTIONS.put("seed", "1");
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULT_OPTIONS);
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+
+            if (option.length != 2 || !options.containsKey(option[0])) {
+                System.err.println("Unknown option " + arg + ", expected one of " + String.join(", ", options.keySet()));
+                System.exit(1);
+            }
+
+            options.put(option[0], option[1]);
+        }
+
+        int deviceCount = Integer.parseInt(options.get("devices"));
+        int multiZoneCount = Integer.parseInt(options.get("multizones"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        long seed = Long.parseLong(options.get("seed"));
+
+        try (Emulator emulator = new Emulator(seed)) {
+            for (int i = 0; i < deviceCount; i++) {
+                emulator.addDevice(i < multiZoneCount ? 38 : 27, "Load Device " + (i + 1));
+            }
+
+            PacketHandler.setBroadcastAddress(emulator.getAddress());
+            PacketHandler.setBroadcastPort(emulator.getPort());
+            Transport transport = PacketHandler.getTransport();
+            transport.setRateLimit(Double.parseDouble(options.get("rate")));
+
+            // Discovery
+            long discoveryStart = System.nanoTime();
+            List<Device> devices = DeviceHelper.findDevices(DeviceHelper.DEFAULT_QUIET_WINDOW, deviceCount, InitializationPolicy.NONE);
+            long discoveryNanos = System.nanoTime() - discoveryStart;
+
+            System.out.printf("Discovered %d of %d devices in %d ms%n", devices.size(), deviceCount, TimeUnit.NANOSECONDS.toMillis(discoveryNanos));
+            if (devices.isEmpty()) {
+                return;
+            }
+
+            List<Light> lights = new ArrayList<>();
+            List<MultiZone> multiZones = new ArrayList<>();
+            for (Device device : devices) {
+                VirtualDevice virtualDevice = emulator.getDevice(device.getMacAddress());
+
+                if (virtualDevice.getProduct().isMultizone()) {
+                    multiZones.add(new MultiZone(device));
+                } else {
+                    lights.add(new Light(device));
+                }
+            }
+
+            List<Operation<?>> operations = parseMix(options.get("mix"), lights, multiZones);
+
+            // Network conditions only apply to the load, not to discovery
+            emulator.setLatency(Duration.ofMillis(Long.parseLong(options.get("latency"))));
+            emulator.setJitter(Duration.ofMillis(Long.parseLong(options.get("jitter"))));
+            emulator.setLossRate(Double.parseDouble(options.get("loss")));
+
+            run(operations, concurrency, duration, new Random(seed), transport);
+        }
+    }
+
+    private static List<Operation<?>> parseMix(String mix, List<Light> lights, List<MultiZone> multiZones) {
+        List<Device> allDevices = new ArrayList<>(lights);
+        allDevices.addAll(multiZones);
+
+        List<Operation<?>> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] weighted = entry.split("=", 2);
+            String name = weighted[0].trim();
+            int weight = weighted.length > 1 ? Integer.parseInt(weighted[1].trim()) : 1;
+
+            Operation<?> operation;
+            switch (name) {
+                case "getColor":
+                    operation = new Operation<>(name, weight, lights, light -> answered(light.getColorAsync()));
+                    break;
+                case "setColor":
+                    operation = new Operation<>(name, weight, lights, light -> acknowledged(light, new SetColor(21845, 65535, 65535, 3500, 0)));
+                    break;
+                case "getPower":
+                    operation = new Operation<>(name, weight, allDevices, device -> answered(device.isPoweredAsync()));
+                    break;
+                case "setPower":
+                    operation = new Operation<>(name, weight, allDevices, device -> acknowledged(device, new SetPower(65535)));
+                    break;
+                case "getZones":
+                    operation = new Operation<>(name, weight, multiZones, multiZone -> answered(multiZone.getExtendedColorZonesAsync()));
+                    break;
+                case "setZones":
+                    operation = new Operation<>(name, weight, multiZones, multiZone -> acknowledged(multiZone, new SetColorZones(0, 7, 43690, 65535, 65535, 3500, 0, MultiZoneApplicationRequest.APPLY)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + name);
+            }
+
+            if (operation.targets.isEmpty()) {
+                throw new IllegalArgumentException("No devices for operation " + name + ", are there any multizones?");
+            }
+
+            operations.add(operation);
+        }
+
+        return operations;
+    }
+
+    private static CompletableFuture<Boolean> answered(CompletableFuture<?> future) {
+        return future.handle((result, throwable) -> throwable == null && result != null);
+    }
+
+    private static CompletableFuture<Boolean> acknowledged(Device device, Message message) {
+        return PacketHandler.sendMessageAsync(message, device, DeliveryMode.ACKNOWLEDGEMENT).handle((packets, throwable) -> throwable == null && !packets.isEmpty());
+    }
+
+    private static void run(List<Operation<?>> operations, int concurrency, Duration duration, Random random, Transport transport) throws InterruptedException {
+        int totalWeight = 0;
+        for (Operation<?> operation : operations) {
+            totalWeight += operation.weight;
+        }
+
+        long retransmissionsStart = transport.getRetransmissionCount();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        while (System.nanoTime() < end) {
+            if (!inFlight.tryAcquire(end - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                break;
+            }
+
+            int pick = random.nextInt(totalWeight);
+            Operation<?> operation = operations.get(0);
+            for (Operation<?> candidate : operations) {
+                pick -= candidate.weight;
+                if (pick < 0) {
+                    operation = candidate;
+                    break;
+                }
+            }
+
+            operation.start(random).whenComplete((answered, throwable) -> inFlight.release());
+        }
+
+        // Let the last requests finish, so they are counted
+        inFlight.acquire(concurrency);
+        long elapsedNanos = System.nanoTime() - start;
+
+        long retransmissions = transport.getRetransmissionCount() - retransmissionsStart;
+        report(operations, elapsedNanos, retransmissions);
+    }
+
+    private static void report(List<Operation<?>> operations, long elapsedNanos, long retransmissions) {
+        double seconds = elapsedNanos / 1e9;
+        long totalCount = 0;
+        long totalUnanswered = 0;
+        List<long[]> allLatencies = new ArrayList<>();
+
+        System.out.printf("%n%-10s %9s %10s %10s %9s %9s %9s %9s%n", "operation", "requests", "req/s", "unanswered", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Operation<?> operation : operations) {
+            long[] latencies = operation.latencies.toArray();
+            allLatencies.add(latencies);
+            totalCount += latencies.length;
+            totalUnanswered += operation.unanswered.sum();
+
+            printRow(operation.name, latencies, operation.unanswered.sum(), seconds);
+        }
+
+        long[] all = new long[(int) totalCount];
+        int offset = 0;
+        for (long[] latencies : allLatencies) {
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        printRow("total", all, totalUnanswered, seconds);
+
+        System.out.printf("%nRetransmissions: %d (%.2f%% of requests)%n", retransmissions, totalCount == 0 ? 0 : 100.0 * retransmissions / totalCount);
+        System.out.printf("Unanswered:      %d (%.3f%% of requests)%n", totalUnanswered, totalCount == 0 ? 0 : 100.0 * totalUnanswered / totalCount);
+    }
+
+    private static void printRow(String name, long[] latencies, long unanswered, double seconds) {
+        Arrays.sort(latencies);
+
+        System.out.printf("%-10s %9d %10.1f %10d %9.2f %9.2f %9.2f %9.2f%n", name, latencies.length, latencies.length / seconds, unanswered,
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999), percentile(latencies, 1));
+    }
+
+    /**
+     * @return the percentile of sorted latencies, in ms
+     */
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * A weighted operation, sent to a random device from its targets
+     */
+    private static class Operation<T extends Device> {
+        private final String name;
+        private final int weight;
+        private final List<T> targets;
+        private final Function<T, CompletableFuture<Boolean>> request;
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private final LongAdder unanswered = new LongAdder();
+
+        Operation(String name, int weight, List<T> targets, Function<T, CompletableFuture<Boolean>> request) {
+            this.name = name;
+            this.weight = weight;
+            this.targets = targets;
+            this.request = request;
+        }
+
+        CompletableFuture<Boolean> start(Random random) {
+            T target = targets.get(random.nextInt(targets.size()));
+            long start = System.nanoTime();
+
+            return request.apply(target).whenComplete((answered, throwable) -> {
+                latencies.record(System.nanoTime() - start);
+
+                if (answered == null || !answered) {
+                    unanswered.increment();
+                }
+            });
+        }
+    }
+
+    /**
+     * Records latencies (in ns) from any thread
+     */
+    private static class LatencyRecorder {
+        private long[] values = new long[4096];
+        private int size;
+
+        synchronized void record(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.benchmark;
+
+import com.stuntguy3000.lifxlansdk.emulator.Emulator;
+import com.stuntguy3000.lifxlansdk.emulator.VirtualDevice;
+import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
+import com.stuntguy3000.lifxlansdk.messages.state.light.LightState;
+import com.stuntguy3000.lifxlansdk.object.product.Light;
+import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full request and response through the transport, against an emulated light on the loopback interface
+ * <p>
+ * Pacing is disabled, so this measures the SDK and the loopback interface rather than the recommended send rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopbackBenchmark {
+    private Emulator emulator;
+    private Light light;
+    private final Color color = new Color(21845, 65535, 65535, 3500);
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        emulator = new Emulator(1);
+        VirtualDevice device = emulator.addDevice(27, "Benchmark Light");
+
+        PacketHandler.setBroadcastAddress(emulator.getAddress());
+        PacketHandler.setBroadcastPort(emulator.getPort());
+        PacketHandler.getTransport().setRateLimit(0);
+
+        light = new Light(emulator.getAddress(), device.getMacAddress(), device.getPort());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        emulator.close();
+    }
+
+    @Benchmark
+    public LightState getColor() {
+        return light.getColor();
+    }
+
+    @Benchmark
+    public void setColorAwaitReply() {
+        light.setColor(color, 0, true);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.benchmark;
+
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link TypeUtil} conversions used by the message codecs
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeUtilBenchmark {
+    private final byte[] uint16Bytes = {(byte) 0xaa, (byte) 0xbb};
+    private final byte[] uint32Bytes = {1, 2, 3, 4};
+    private final byte[] floatBytes = TypeUtil.floatToBytesLittleEndian(1.5f);
+    private final byte[] labelBytes = TypeUtil.stringToBytesWithPadding("Living Room", 32);
+    private final String macAddress = "d0:73:d5:43:47:86";
+    private final UUID uuid = UUID.fromString("e4fb7a6e-8f4a-4ab6-a36f-b1c0f4d26ec9");
+    private final byte[] uuidBytes = TypeUtil.uuidObjectToUUIDBytes(uuid);
+    private int number = 0x12345678;
+
+    @Benchmark
+    public int uint16FromBytes() {
+        return TypeUtil.littleEndianBytesToUint16(uint16Bytes);
+    }
+
+    @Benchmark
+    public int uint32FromBytes() {
+        return TypeUtil.littleEndianBytesToUint32(uint32Bytes);
+    }
+
+    @Benchmark
+    public float floatFromBytes() {
+        return TypeUtil.littleEndianBytesToFloat(floatBytes);
+    }
+
+    @Benchmark
+    public byte[] uint32ToBytes() {
+        return TypeUtil.uint32ToBytesLittleEndian(number);
+    }
+
+    @Benchmark
+    public String stringFromBytes() {
+        return TypeUtil.bytesToString(labelBytes);
+    }
+
+    @Benchmark
+    public byte[] stringToBytes() {
+        return TypeUtil.stringToBytesWithPadding("Living Room", 32);
+    }
+
+    @Benchmark
+    public long macAddressToLong() {
+        return TypeUtil.macAddressToLong(macAddress);
+    }
+
+    @Benchmark
+    public UUID uuidFromBytes() {
+        return TypeUtil.uuidBytesToUUIDObject(uuidBytes);
+    }
+
+    @Benchmark
+    public byte[] uuidToBytes() {
+        return TypeUtil.uuidObjectToUUIDBytes(uuid);
+    }
+}
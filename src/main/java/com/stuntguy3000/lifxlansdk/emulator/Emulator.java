@@ -0,0 +1,412 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.emulator;
+
+import com.stuntguy3000.lifxlansdk.event.Events;
+import com.stuntguy3000.lifxlansdk.object.product.Product;
+import com.stuntguy3000.lifxlansdk.object.product.ProductRegistry;
+import com.stuntguy3000.lifxlansdk.object.protocol.FrameAddress;
+import com.stuntguy3000.lifxlansdk.object.protocol.FrameHeader;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.object.protocol.ProtocolHeader;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emulates a network of LIFX devices on the loopback interface
+ * <p>
+ * Each {@link VirtualDevice} listens on its own port, and a shared discovery port stands in for the broadcast address.
+ * Point the SDK at the emulator with {@link com.stuntguy3000.lifxlansdk.handler.PacketHandler#setBroadcastAddress(InetAddress)}
+ * and {@link com.stuntguy3000.lifxlansdk.handler.PacketHandler#setBroadcastPort(int)}, using {@link #getAddress()} and
+ * {@link #getPort()}.
+ * <p>
+ * Network conditions can be simulated with a fixed latency, random jitter and random packet loss. The random source is
+ * seeded, so a run with the same seed and traffic drops the same packets.
+ */
+public class Emulator implements Closeable {
+    /**
+     * The zones on a multizone device unless otherwise specified
+     */
+    public static final int DEFAULT_ZONES_COUNT = 16;
+    /**
+     * The tiles on a chained matrix device (other matrix devices have one)
+     */
+    public static final int DEFAULT_TILES_COUNT = 5;
+
+    /**
+     * The address all devices listen on
+     */
+    @Getter
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+    /**
+     * The port discovery (broadcast) messages are sent to
+     */
+    @Getter
+    private final int port;
+    private final DatagramChannel discoveryChannel;
+    private final Selector selector;
+    private final Thread thread;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LIFX-Emulator-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Random random;
+
+    private final List<VirtualDevice> devices = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, VirtualDevice> devicesByMac = new ConcurrentHashMap<>();
+    private final Queue<VirtualDevice> pendingRegistrations = new ConcurrentLinkedQueue<>();
+    private int nextDevice = 1;
+    private volatile boolean running = true;
+
+    /**
+     * The delay before each device replies
+     */
+    @Getter
+    @Setter
+    private volatile Duration latency = Duration.ZERO;
+    /**
+     * The most the delay varies from the latency, in either direction
+     */
+    @Getter
+    @Setter
+    private volatile Duration jitter = Duration.ZERO;
+    /**
+     * The chance (0 to 1) that a packet, in either direction, is dropped
+     */
+    @Getter
+    @Setter
+    private volatile double lossRate = 0;
+
+    /**
+     * Construct a new Emulator, with no devices and a random seed
+     *
+     * @throws IOException if the discovery channel could not be opened
+     */
+    public Emulator() throws IOException {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Construct a new Emulator, with no devices
+     *
+     * @param seed the seed for the simulated jitter and packet loss
+     *
+     * @throws IOException if the discovery channel could not be opened
+     */
+    public Emulator(long seed) throws IOException {
+        random = new Random(seed);
+        selector = Selector.open();
+        discoveryChannel = openChannel();
+        discoveryChannel.register(selector, SelectionKey.OP_READ);
+        port = ((InetSocketAddress) discoveryChannel.getLocalAddress()).getPort();
+
+        thread = new Thread(this::run, "LIFX-Emulator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Add a device, with the default amount of zones or tiles for its product
+     *
+     * @param productId the LIFX product id to emulate (see products.csv)
+     * @param label     the label of the device
+     *
+     * @return the added device
+     *
+     * @throws IOException if the device's channel could not be opened
+     */
+    public VirtualDevice addDevice(int productId, String label) throws IOException {
+        Product product = ProductRegistry.getProduct(1, productId);
+
+        return addDevice(productId, label, DEFAULT_ZONES_COUNT, product.isChain() ? DEFAULT_TILES_COUNT : 1);
+    }
+
+    /**
+     * Add a device
+     *
+     * @param productId  the LIFX product id to emulate (see products.csv)
+     * @param label      the label of the device
+     * @param zonesCount the amount of zones (multizone products only)
+     * @param tilesCount the amount of tiles (matrix products only)
+     *
+     * @return the added device
+     *
+     * @throws IOException if the device's channel could not be opened
+     */
+    public synchronized VirtualDevice addDevice(int productId, String label, int zonesCount, int tilesCount) throws IOException {
+        int index = nextDevice++;
+        String macAddress = String.format("D0:73:D5:%02X:%02X:%02X", (index >> 16) & 0xff, (index >> 8) & 0xff, index & 0xff);
+
+        DatagramChannel channel = openChannel();
+        int devicePort = ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        VirtualDevice device = new VirtualDevice(macAddress, ProductRegistry.getProduct(1, productId), label, zonesCount, tilesCount, channel, devicePort);
+
+        devices.add(device);
+        devicesByMac.put(macAddress, device);
+        pendingRegistrations.add(device);
+        selector.wakeup();
+
+        return device;
+    }
+
+    /**
+     * Add several devices of the same product, labelled "Virtual Device 1", "Virtual Device 2" and so on
+     *
+     * @param count     the amount of devices to add
+     * @param productId the LIFX product id to emulate (see products.csv)
+     *
+     * @return the added devices
+     *
+     * @throws IOException if a device's channel could not be opened
+     */
+    public List<VirtualDevice> addDevices(int count, int productId) throws IOException {
+        List<VirtualDevice> added = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            added.add(addDevice(productId, "Virtual Device " + (devices.size() + 1)));
+        }
+
+        return added;
+    }
+
+    /**
+     * Get the emulated devices
+     *
+     * @return an unmodifiable list of the devices, in the order they were added
+     */
+    public List<VirtualDevice> getDevices() {
+        return Collections.unmodifiableList(devices);
+    }
+
+    /**
+     * Get an emulated device by its MAC address
+     *
+     * @param macAddress the MAC address, e.g. D0:73:D5:00:00:01
+     *
+     * @return the device, or null if no device has this MAC address
+     */
+    public VirtualDevice getDevice(String macAddress) {
+        return devicesByMac.get(macAddress.toUpperCase());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        scheduler.shutdownNow();
+
+        try {
+            selector.close();
+            discoveryChannel.close();
+
+            for (VirtualDevice device : devices) {
+                device.getChannel().close();
+            }
+        } catch (IOException e) {
+            Events.error("Failed to close the emulator", e);
+        }
+    }
+
+    private static DatagramChannel openChannel() throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        channel.configureBlocking(false);
+
+        return channel;
+    }
+
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocate(Packet.MAX_PACKET_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (running) {
+            try {
+                selector.select();
+
+                VirtualDevice pending;
+                while ((pending = pendingRegistrations.poll()) != null) {
+                    pending.getChannel().register(selector, SelectionKey.OP_READ, pending);
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    DatagramChannel channel = (DatagramChannel) key.channel();
+                    VirtualDevice device = (VirtualDevice) key.attachment();
+
+                    SocketAddress sender;
+                    while ((sender = channel.receive(buffer)) != null) {
+                        buffer.flip();
+                        receive(buffer, sender, device);
+                        buffer.clear();
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    Events.error("Emulator failed to receive packet", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Handle a received packet
+     *
+     * @param buffer the packet
+     * @param sender where the packet came from
+     * @param device the device the packet was sent to, or null if it was sent to the discovery port
+     */
+    private void receive(ByteBuffer buffer, SocketAddress sender, VirtualDevice device) {
+        if (buffer.remaining() < Packet.HEADER_SIZE || shouldDrop()) {
+            return;
+        }
+
+        FrameHeader frameHeader = new FrameHeader();
+        frameHeader.decodeFrom(buffer, 0, 8);
+        FrameAddress frameAddress = new FrameAddress();
+        frameAddress.decodeFrom(buffer, 8, 16);
+        ProtocolHeader protocolHeader = new ProtocolHeader();
+        protocolHeader.decodeFrom(buffer, 24, 12);
+
+        int size = Math.min(frameHeader.getSize(), buffer.remaining());
+        ByteBuffer payload = ByteBuffer.allocate(Math.max(0, size - Packet.HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < payload.capacity(); i++) {
+            payload.put(i, buffer.get(Packet.HEADER_SIZE + i));
+        }
+
+        // Work out which devices the packet is for
+        //  A zero target (or tagged packet) is for all devices, as is any packet to the discovery port
+        boolean allDevices = frameHeader.isTagged() || frameAddress.getTarget().startsWith("00:00:00:00:00:00");
+        List<VirtualDevice> recipients = new ArrayList<>();
+
+        if (device != null) {
+            if (allDevices || device.getMacAddress().equalsIgnoreCase(frameAddress.getTarget())) {
+                recipients.add(device);
+            }
+        } else if (allDevices) {
+            recipients.addAll(devices);
+        } else {
+            VirtualDevice target = getDevice(frameAddress.getTarget());
+
+            if (target != null) {
+                recipients.add(target);
+            }
+        }
+
+        for (VirtualDevice recipient : recipients) {
+            List<VirtualDevice.Reply> replies = new ArrayList<>();
+
+            if (frameAddress.isAck_required()) {
+                replies.add(new VirtualDevice.Reply(45, new byte[0]));
+            }
+
+            try {
+                replies.addAll(recipient.handle(protocolHeader.getType(), payload, frameAddress.isRes_required()));
+            } catch (IndexOutOfBoundsException e) {
+                // Payload too short for its type, a real device would ignore it
+                continue;
+            }
+
+            List<ByteBuffer> encoded = new ArrayList<>();
+            for (VirtualDevice.Reply reply : replies) {
+                if (!shouldDrop()) {
+                    encoded.add(encode(recipient, reply, frameHeader.getSource(), frameAddress.getSequence()));
+                }
+            }
+
+            long delayNanos = nextDelayNanos();
+            if (delayNanos <= 0) {
+                send(recipient, encoded, sender);
+            } else {
+                scheduler.schedule(() -> send(recipient, encoded, sender), delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private ByteBuffer encode(VirtualDevice device, VirtualDevice.Reply reply, int source, short sequence) {
+        FrameHeader frameHeader = new FrameHeader();
+        frameHeader.setSource(source);
+        FrameAddress frameAddress = new FrameAddress();
+        frameAddress.setTarget(device.getMacAddress());
+        frameAddress.setRes_required(false);
+        frameAddress.setSequence(sequence);
+        ProtocolHeader protocolHeader = new ProtocolHeader();
+        protocolHeader.setType(reply.getType());
+
+        ByteBuffer buffer = ByteBuffer.allocate(Packet.MAX_PACKET_SIZE);
+        new Packet(frameHeader, frameAddress, protocolHeader, new RawMessage(reply.getType(), reply.getPayload())).encodeInto(buffer);
+        buffer.flip();
+
+        return buffer;
+    }
+
+    private void send(VirtualDevice device, List<ByteBuffer> packets, SocketAddress target) {
+        try {
+            for (ByteBuffer packet : packets) {
+                device.getChannel().send(packet, target);
+            }
+        } catch (IOException e) {
+            if (running) {
+                Events.error("Emulator failed to send packet", e);
+            }
+        }
+    }
+
+    private boolean shouldDrop() {
+        double lossRate = this.lossRate;
+
+        return lossRate > 0 && random.nextDouble() < lossRate;
+    }
+
+    private long nextDelayNanos() {
+        long delayNanos = latency.toNanos();
+        long jitterNanos = jitter.toNanos();
+
+        if (jitterNanos > 0) {
+            delayNanos += (long) (jitterNanos * (2 * random.nextDouble() - 1));
+        }
+
+        return Math.max(0, delayNanos);
+    }
+}
@@ -0,0 +1,684 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.emulator;
+
+import com.stuntguy3000.lifxlansdk.object.product.Product;
+import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An emulated LIFX device, which replies to LAN protocol messages as per its product capabilities
+ * <p>
+ * Messages the product does not support are answered with StateUnhandled (223), as a real device would. All state is
+ * kept in memory, and can be inspected to verify the effect of Set messages.
+ */
+public class VirtualDevice {
+    /**
+     * The most zones carried by a single extended multizone message
+     */
+    private static final int MAX_EXTENDED_ZONES = 82;
+    /**
+     * Each tile is an 8x8 grid of zones
+     */
+    private static final int TILE_WIDTH = 8;
+    private static final int TILE_ZONES = TILE_WIDTH * TILE_WIDTH;
+    private static final int RELAYS = 4;
+
+    @Getter
+    private final String macAddress;
+    @Getter
+    private final Product product;
+    @Getter(AccessLevel.PACKAGE)
+    private final DatagramChannel channel;
+    /**
+     * The port this device receives unicast messages on
+     */
+    @Getter
+    private final int port;
+    private final long startTime = System.nanoTime();
+
+    // Device
+    private String label;
+    private int power;
+    private UUID location = new UUID(0, 1);
+    private String locationLabel = "Virtual Location";
+    private long locationUpdatedAt;
+    private UUID group = new UUID(0, 1);
+    private String groupLabel = "Virtual Group";
+    private long groupUpdatedAt;
+
+    // Light
+    private Color color = new Color(0, 0, 65535, 3500);
+    private int infrared;
+
+    // MultiZone
+    private Color[] zones;
+    private Color[] pendingZones;
+    private byte[] multiZoneEffect = new byte[59];
+
+    // Tile
+    private Color[][] tiles;
+    private float[] userX;
+    private float[] userY;
+    private byte[] tileEffect = new byte[187];
+
+    // Relay
+    private final int[] relayLevels = new int[RELAYS];
+
+    /**
+     * Construct a new VirtualDevice
+     *
+     * @param macAddress the MAC address of the device
+     * @param product    the product being emulated
+     * @param label      the label of the device
+     * @param zonesCount the amount of zones (multizone products only)
+     * @param tilesCount the amount of tiles (matrix products only)
+     * @param channel    the channel the device receives unicast messages on
+     * @param port       the port the channel is bound to
+     */
+    VirtualDevice(String macAddress, Product product, String label, int zonesCount, int tilesCount, DatagramChannel channel, int port) {
+        this.macAddress = macAddress;
+        this.product = product;
+        this.label = label;
+        this.channel = channel;
+        this.port = port;
+
+        zones = new Color[product.isMultizone() ? zonesCount : 0];
+        for (int i = 0; i < zones.length; i++) {
+            zones[i] = color.clone();
+        }
+        pendingZones = copy(zones);
+
+        int tiles = product.isMatrix() ? tilesCount : 0;
+        this.tiles = new Color[tiles][TILE_ZONES];
+        this.userX = new float[tiles];
+        this.userY = new float[tiles];
+        for (Color[] tile : this.tiles) {
+            for (int i = 0; i < TILE_ZONES; i++) {
+                tile[i] = color.clone();
+            }
+        }
+    }
+
+    /**
+     * Handle a message sent to this device
+     *
+     * @param type        the message type
+     * @param payload     the message payload, in little-endian byte order
+     * @param resRequired true if the sender requires a State reply to Set messages
+     *
+     * @return the replies to send, in order
+     */
+    synchronized List<Reply> handle(int type, ByteBuffer payload, boolean resRequired) {
+        List<Reply> replies = new ArrayList<>();
+
+        switch (type) {
+            // Discovery
+            case 2: {
+                reply(replies, 3, 5).put((byte) 1).putInt(port);
+                break;
+            }
+
+            // Device
+            case 14:
+            case 18: {
+                reply(replies, type + 1, 20).putLong(0).putLong(0).putShort((short) 70).putShort((short) 3);
+                break;
+            }
+            case 16: {
+                reply(replies, 17, 14).putFloat(1e-5f);
+                break;
+            }
+            case 20: {
+                statePower(replies);
+                break;
+            }
+            case 21: {
+                power = u16(payload, 0);
+                if (resRequired) {
+                    statePower(replies);
+                }
+                break;
+            }
+            case 23: {
+                stateLabel(replies);
+                break;
+            }
+            case 24: {
+                label = string(payload, 0);
+                if (resRequired) {
+                    stateLabel(replies);
+                }
+                break;
+            }
+            case 32: {
+                reply(replies, 33, 12).putInt(1).putInt(product.getProductId());
+                break;
+            }
+            case 34: {
+                long uptime = System.nanoTime() - startTime;
+                reply(replies, 35, 24).putLong(System.currentTimeMillis() * 1_000_000).putLong(uptime).putLong(0);
+                break;
+            }
+            case 38: {
+                // Reboot, nothing to do
+                break;
+            }
+            case 48: {
+                stateLocation(replies);
+                break;
+            }
+            case 49: {
+                location = uuid(payload, 0);
+                locationLabel = string(payload, 16);
+                locationUpdatedAt = payload.getLong(48);
+                if (resRequired) {
+                    stateLocation(replies);
+                }
+                break;
+            }
+            case 51: {
+                stateGroup(replies);
+                break;
+            }
+            case 52: {
+                group = uuid(payload, 0);
+                groupLabel = string(payload, 16);
+                groupUpdatedAt = payload.getLong(48);
+                if (resRequired) {
+                    stateGroup(replies);
+                }
+                break;
+            }
+            case 58: {
+                ByteBuffer echo = reply(replies, 59, 64);
+                for (int i = 0; i < Math.min(64, payload.limit()); i++) {
+                    echo.put(payload.get(i));
+                }
+                break;
+            }
+
+            // Light
+            case 101: {
+                lightState(replies);
+                break;
+            }
+            case 102: {
+                color = color(payload, 1);
+                if (resRequired) {
+                    lightState(replies);
+                }
+                break;
+            }
+            case 103:
+            case 119: {
+                // Waveforms are not animated, non-transient waveforms just end on their color
+                boolean isTransient = payload.get(1) != 0;
+                if (!isTransient) {
+                    Color target = color(payload, 2);
+                    if (type == 119) {
+                        target = new Color(payload.get(21) != 0 ? target.getHue() : color.getHue(), payload.get(22) != 0 ? target.getSaturation() : color.getSaturation(), payload.get(23) != 0 ? target.getBrightness() : color.getBrightness(), payload.get(24) != 0 ? target.getKelvin() : color.getKelvin());
+                    }
+                    color = target;
+                }
+                if (resRequired) {
+                    lightState(replies);
+                }
+                break;
+            }
+            case 116: {
+                stateLightPower(replies);
+                break;
+            }
+            case 117: {
+                power = u16(payload, 0);
+                if (resRequired) {
+                    stateLightPower(replies);
+                }
+                break;
+            }
+            case 120:
+            case 122: {
+                if (!product.isInfrared()) {
+                    unhandled(replies, type);
+                    break;
+                }
+                if (type == 122) {
+                    infrared = u16(payload, 0);
+                }
+                if (type == 120 || resRequired) {
+                    reply(replies, 121, 2).putShort((short) infrared);
+                }
+                break;
+            }
+
+            // MultiZone
+            case 501:
+            case 502:
+            case 507:
+            case 508: {
+                if (!product.isMultizone()) {
+                    unhandled(replies, type);
+                    break;
+                }
+                handleMultiZone(replies, type, payload, resRequired);
+                break;
+            }
+            case 510:
+            case 511: {
+                if (!product.isExtendedMultizone()) {
+                    unhandled(replies, type);
+                    break;
+                }
+                handleMultiZone(replies, type, payload, resRequired);
+                break;
+            }
+
+            // Tile
+            case 701:
+            case 703:
+            case 707:
+            case 715:
+            case 718:
+            case 719: {
+                if (!product.isMatrix()) {
+                    unhandled(replies, type);
+                    break;
+                }
+                handleTile(replies, type, payload, resRequired);
+                break;
+            }
+
+            // Relay
+            case 816:
+            case 817: {
+                if (!product.isRelays()) {
+                    unhandled(replies, type);
+                    break;
+                }
+                int relayIndex = u8(payload, 0) % RELAYS;
+                if (type == 817) {
+                    relayLevels[relayIndex] = u16(payload, 1);
+                }
+                if (type == 816 || resRequired) {
+                    reply(replies, 818, 3).put((byte) relayIndex).putShort((short) relayLevels[relayIndex]);
+                }
+                break;
+            }
+
+            default: {
+                unhandled(replies, type);
+                break;
+            }
+        }
+
+        return replies;
+    }
+
+    private void handleMultiZone(List<Reply> replies, int type, ByteBuffer payload, boolean resRequired) {
+        switch (type) {
+            case 501: {
+                int start = u8(payload, 0);
+                int end = Math.min(u8(payload, 1), zones.length - 1);
+                int apply = u8(payload, 14);
+
+                // NO_APPLY (0) buffers the change, APPLY (1) applies it and any buffered changes, APPLY_ONLY (2) applies
+                // just the buffered changes
+                if (apply != 2) {
+                    Color zoneColor = color(payload, 2);
+                    for (int i = start; i <= end; i++) {
+                        pendingZones[i] = zoneColor.clone();
+                    }
+                }
+                if (apply != 0) {
+                    zones = copy(pendingZones);
+                }
+                if (resRequired) {
+                    colorZones(replies, start, end);
+                }
+                break;
+            }
+            case 502: {
+                colorZones(replies, u8(payload, 0), Math.min(u8(payload, 1), zones.length - 1));
+                break;
+            }
+            case 507: {
+                reply(replies, 509, multiZoneEffect.length).put(multiZoneEffect);
+                break;
+            }
+            case 508: {
+                multiZoneEffect = bytes(payload, 0, multiZoneEffect.length);
+                if (resRequired) {
+                    reply(replies, 509, multiZoneEffect.length).put(multiZoneEffect);
+                }
+                break;
+            }
+            case 510: {
+                int apply = u8(payload, 4);
+                int index = u16(payload, 5);
+                int count = u8(payload, 7);
+
+                if (apply != 2) {
+                    for (int i = 0; i < count && index + i < zones.length; i++) {
+                        pendingZones[index + i] = color(payload, 8 + i * 8);
+                    }
+                }
+                if (apply != 0) {
+                    zones = copy(pendingZones);
+                }
+                if (resRequired) {
+                    extendedColorZones(replies);
+                }
+                break;
+            }
+            case 511: {
+                extendedColorZones(replies);
+                break;
+            }
+        }
+    }
+
+    private void handleTile(List<Reply> replies, int type, ByteBuffer payload, boolean resRequired) {
+        switch (type) {
+            case 701: {
+                ByteBuffer chain = reply(replies, 702, 882).put((byte) 0);
+                for (int i = 0; i < 16; i++) {
+                    int start = chain.position();
+                    if (i < tiles.length) {
+                        chain.putLong(0).putFloat(userX[i]).putFloat(userY[i]).put((byte) TILE_WIDTH).put((byte) TILE_WIDTH).put((byte) 0);
+                        chain.putInt(1).putInt(product.getProductId()).putInt(0).putLong(0).putLong(0).putShort((short) 70).putShort((short) 3);
+                    }
+                    chain.position(start + 55);
+                }
+                chain.put((byte) tiles.length);
+                break;
+            }
+            case 703: {
+                int tileIndex = u8(payload, 0);
+                if (tileIndex < tiles.length) {
+                    userX[tileIndex] = payload.getFloat(3);
+                    userY[tileIndex] = payload.getFloat(7);
+                }
+                break;
+            }
+            case 707: {
+                int tileIndex = u8(payload, 0);
+                int length = u8(payload, 1);
+                for (int tile = tileIndex; tile < Math.min(tileIndex + length, tiles.length); tile++) {
+                    state64(replies, tile, u8(payload, 3), u8(payload, 4), u8(payload, 5));
+                }
+                break;
+            }
+            case 715: {
+                int tileIndex = u8(payload, 0);
+                int length = u8(payload, 1);
+                int x = u8(payload, 3);
+                int y = u8(payload, 4);
+                int width = Math.max(1, u8(payload, 5));
+
+                for (int tile = tileIndex; tile < Math.min(tileIndex + length, tiles.length); tile++) {
+                    for (int i = 0; i < TILE_ZONES; i++) {
+                        int zoneX = x + i % width;
+                        int zoneY = y + i / width;
+                        if (zoneX < TILE_WIDTH && zoneY < TILE_WIDTH) {
+                            tiles[tile][zoneY * TILE_WIDTH + zoneX] = color(payload, 10 + i * 8);
+                        }
+                    }
+                }
+                if (resRequired) {
+                    for (int tile = tileIndex; tile < Math.min(tileIndex + length, tiles.length); tile++) {
+                        state64(replies, tile, x, y, width);
+                    }
+                }
+                break;
+            }
+            case 718: {
+                reply(replies, 720, tileEffect.length).put(tileEffect);
+                break;
+            }
+            case 719: {
+                // SetTileEffect starts with an extra reserved byte
+                tileEffect = bytes(payload, 1, tileEffect.length);
+                if (resRequired) {
+                    reply(replies, 720, tileEffect.length).put(tileEffect);
+                }
+                break;
+            }
+        }
+    }
+
+    private void statePower(List<Reply> replies) {
+        reply(replies, 22, 2).putShort((short) power);
+    }
+
+    private void stateLightPower(List<Reply> replies) {
+        reply(replies, 118, 2).putShort((short) power);
+    }
+
+    private void stateLabel(List<Reply> replies) {
+        putString(reply(replies, 25, 32), label);
+    }
+
+    private void stateLocation(List<Reply> replies) {
+        ByteBuffer payload = reply(replies, 50, 56).put(TypeUtil.uuidObjectToUUIDBytes(location));
+        putString(payload, locationLabel);
+        payload.putLong(locationUpdatedAt);
+    }
+
+    private void stateGroup(List<Reply> replies) {
+        ByteBuffer payload = reply(replies, 53, 56).put(TypeUtil.uuidObjectToUUIDBytes(group));
+        putString(payload, groupLabel);
+        payload.putLong(groupUpdatedAt);
+    }
+
+    private void lightState(List<Reply> replies) {
+        ByteBuffer payload = reply(replies, 107, 52);
+        color.encodeInto(payload);
+        payload.putShort((short) 0).putShort((short) power);
+        putString(payload, label);
+    }
+
+    private void colorZones(List<Reply> replies, int start, int end) {
+        if (start == end) {
+            ByteBuffer payload = reply(replies, 503, 10).put((byte) zones.length).put((byte) start);
+            zones[start].encodeInto(payload);
+            return;
+        }
+
+        // Each StateMultiZone carries 8 zones
+        for (int index = start; index <= end; index += 8) {
+            ByteBuffer payload = reply(replies, 506, 66).put((byte) zones.length).put((byte) index);
+            for (int i = index; i < index + 8; i++) {
+                (i < zones.length ? zones[i] : new Color()).encodeInto(payload);
+            }
+        }
+    }
+
+    private void extendedColorZones(List<Reply> replies) {
+        // Each StateExtendedColorZones carries up to 82 zones
+        for (int index = 0; index == 0 || index < zones.length; index += MAX_EXTENDED_ZONES) {
+            int count = Math.min(MAX_EXTENDED_ZONES, zones.length - index);
+            ByteBuffer payload = reply(replies, 512, 661).putShort((short) zones.length).putShort((short) index).put((byte) count);
+            for (int i = index; i < index + count; i++) {
+                zones[i].encodeInto(payload);
+            }
+        }
+    }
+
+    private void state64(List<Reply> replies, int tile, int x, int y, int width) {
+        ByteBuffer payload = reply(replies, 711, 517).put((byte) tile).put((byte) 0).put((byte) x).put((byte) y).put((byte) width);
+        width = Math.max(1, width);
+
+        for (int i = 0; i < TILE_ZONES; i++) {
+            int zoneX = x + i % width;
+            int zoneY = y + i / width;
+            (zoneX < TILE_WIDTH && zoneY < TILE_WIDTH ? tiles[tile][zoneY * TILE_WIDTH + zoneX] : new Color()).encodeInto(payload);
+        }
+    }
+
+    private void unhandled(List<Reply> replies, int type) {
+        reply(replies, 223, 2).putShort((short) type);
+    }
+
+    /**
+     * Add a reply, and return its zero-filled payload to be written
+     */
+    private static ByteBuffer reply(List<Reply> replies, int type, int size) {
+        ByteBuffer payload = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        replies.add(new Reply(type, payload.array()));
+
+        return payload;
+    }
+
+    private static int u8(ByteBuffer payload, int offset) {
+        return payload.get(offset) & 0xff;
+    }
+
+    private static int u16(ByteBuffer payload, int offset) {
+        return payload.getShort(offset) & 0xffff;
+    }
+
+    private static Color color(ByteBuffer payload, int offset) {
+        Color color = new Color();
+        color.decodeFrom(payload, offset, 8);
+
+        return color;
+    }
+
+    private static String string(ByteBuffer payload, int offset) {
+        return TypeUtil.bufferToString(payload, offset, 32);
+    }
+
+    private static void putString(ByteBuffer payload, String value) {
+        payload.put(TypeUtil.stringToBytesWithPadding(value, 32), 0, 32);
+    }
+
+    private static UUID uuid(ByteBuffer payload, int offset) {
+        return TypeUtil.uuidBytesToUUIDObject(bytes(payload, offset, 16));
+    }
+
+    private static byte[] bytes(ByteBuffer payload, int offset, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length && offset + i < payload.limit(); i++) {
+            data[i] = payload.get(offset + i);
+        }
+
+        return data;
+    }
+
+    private static Color[] copy(Color[] colors) {
+        Color[] copy = new Color[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            copy[i] = colors[i].clone();
+        }
+
+        return copy;
+    }
+
+    /**
+     * Get the label of this device
+     *
+     * @return the label
+     */
+    public synchronized String getLabel() {
+        return label;
+    }
+
+    /**
+     * Set the label of this device, as if it was changed by another client
+     *
+     * @param label the label
+     */
+    public synchronized void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Get the power level of this device
+     *
+     * @return the power level (0 or 65535)
+     */
+    public synchronized int getPower() {
+        return power;
+    }
+
+    /**
+     * Get the color of this light
+     *
+     * @return a copy of the color
+     */
+    public synchronized Color getColor() {
+        return color.clone();
+    }
+
+    /**
+     * Get the infrared brightness of this light
+     *
+     * @return the infrared brightness
+     */
+    public synchronized int getInfrared() {
+        return infrared;
+    }
+
+    /**
+     * Get the applied zone colors of this multizone
+     *
+     * @return a copy of the zone colors (empty if this is not a multizone)
+     */
+    public synchronized Color[] getZones() {
+        return copy(zones);
+    }
+
+    /**
+     * Get the zone colors of a tile
+     *
+     * @param tileIndex the index of the tile in the chain
+     *
+     * @return a copy of the 64 zone colors, row by row
+     */
+    public synchronized Color[] getTile(int tileIndex) {
+        return copy(tiles[tileIndex]);
+    }
+
+    /**
+     * Get the power level of a relay
+     *
+     * @param relayIndex the index of the relay
+     *
+     * @return the power level (0 or 65535)
+     */
+    public synchronized int getRelayLevel(int relayIndex) {
+        return relayLevels[relayIndex];
+    }
+
+    /**
+     * A reply to a message, before its headers are added
+     */
+    @Getter
+    static class Reply {
+        private final int type;
+        private final byte[] payload;
+
+        Reply(int type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.event;
+
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Something that happened within the SDK, such as a packet being sent or a reply failing to decode
+ * <p>
+ * Every packet sent for a request, and every reply routed to it, share the request's correlation id, which is also
+ * set on the request's reply packets (see {@link com.stuntguy3000.lifxlansdk.object.protocol.Packet#getCorrelationId()}).
+ * This allows a single command to be traced from being sent, through any retries, to its replies or timeout.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class Event {
+    private final EventType type;
+    /**
+     * When the event happened, in milliseconds since the epoch
+     */
+    private final long timestamp;
+    /**
+     * When the event happened, as per {@link System#nanoTime()}, for measuring the time between events
+     */
+    private final long nanoTime;
+    /**
+     * The id shared by all events of a single request, or zero if the event is not part of a request
+     */
+    private final long correlationId;
+    /**
+     * The packed MAC address of the device involved (see {@link TypeUtil#macAddressToLong(String)}), zero for
+     * broadcasts or if unknown
+     */
+    @ToString.Exclude
+    private final long target;
+    /**
+     * The type of message involved, or -1 if unknown
+     */
+    private final int messageType;
+    /**
+     * Which attempt a sent packet was (starting at 1), or zero
+     */
+    private final int attempt;
+    /**
+     * A description of what happened, can be null
+     */
+    private final String description;
+    /**
+     * The cause of an error, can be null
+     */
+    private final Throwable throwable;
+
+    /**
+     * @return the MAC address of the device involved, 00:00:00:00:00:00 for broadcasts or if unknown
+     */
+    @ToString.Include
+    public String getMacAddress() {
+        return TypeUtil.longToMacAddress(target);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.event;
+
+/**
+ * The kinds of {@link Event} reported to an {@link EventListener}
+ */
+public enum EventType {
+    /**
+     * A packet was written to the network for the first time
+     */
+    SEND,
+    /**
+     * A packet was written to the network again, as it was not answered in time
+     */
+    RETRY,
+    /**
+     * A reply was received and handed to the request awaiting it
+     */
+    RECEIVE,
+    /**
+     * A request used all of its attempts (or its deadline) without receiving a reply
+     */
+    TIMEOUT,
+    /**
+     * A message could not be encoded
+     */
+    ENCODE_ERROR,
+    /**
+     * A received packet could not be decoded
+     */
+    DECODE_ERROR,
+    /**
+     * Any other error, such as a failure to read from or write to the network
+     */
+    ERROR
+}
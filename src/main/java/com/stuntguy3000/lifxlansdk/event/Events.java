@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes {@link Event}s to the registered {@link EventListener}s
+ * <p>
+ * With no listeners registered, publishing costs a single check and allocates nothing. Errors are the exception: when
+ * nobody is listening they are printed to standard error, so they are never lost.
+ */
+public class Events {
+    private static final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register a listener
+     *
+     * @param listener the listener
+     */
+    public static void addListener(EventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener
+     *
+     * @param listener the listener
+     */
+    public static void removeListener(EventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return true if any listener is registered, callers can skip gathering event details if not
+     */
+    public static boolean isEnabled() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Publish a packet or request event
+     *
+     * @param type          the type of event
+     * @param correlationId the id of the request, or zero
+     * @param target        the packed MAC address of the device involved
+     * @param messageType   the type of message involved
+     * @param attempt       which attempt a sent packet was, or zero
+     */
+    public static void packet(EventType type, long correlationId, long target, int messageType, int attempt) {
+        if (isEnabled()) {
+            publish(new Event(type, System.currentTimeMillis(), System.nanoTime(), correlationId, target, messageType, attempt, null, null));
+        }
+    }
+
+    /**
+     * Publish a message which could not be encoded (printed if nobody is listening)
+     *
+     * @param messageType the type of message
+     * @param throwable   the cause
+     */
+    public static void encodeError(int messageType, Throwable throwable) {
+        error(EventType.ENCODE_ERROR, 0, messageType, "Failed to encode message " + messageType, throwable);
+    }
+
+    /**
+     * Publish a received packet which could not be decoded (printed if nobody is listening)
+     *
+     * @param target      the packed MAC address of the sender
+     * @param messageType the type of message received
+     * @param throwable   the cause
+     */
+    public static void decodeError(long target, int messageType, Throwable throwable) {
+        error(EventType.DECODE_ERROR, target, messageType, "Failed to decode message " + messageType, throwable);
+    }
+
+    /**
+     * Publish an error (printed if nobody is listening)
+     *
+     * @param description what was being done when the error happened
+     * @param throwable   the cause
+     */
+    public static void error(String description, Throwable throwable) {
+        error(EventType.ERROR, 0, -1, description, throwable);
+    }
+
+    private static void error(EventType type, long target, int messageType, String description, Throwable throwable) {
+        if (isEnabled()) {
+            publish(new Event(type, System.currentTimeMillis(), System.nanoTime(), 0, target, messageType, 0, description, throwable));
+        } else {
+            throwable.printStackTrace();
+        }
+    }
+
+    /**
+     * Publish an event to every listener
+     *
+     * @param event the event
+     */
+    public static void publish(Event event) {
+        for (EventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException exception) {
+                // A broken listener must not break whichever SDK thread it was called from
+                exception.printStackTrace();
+            }
+        }
+    }
+}
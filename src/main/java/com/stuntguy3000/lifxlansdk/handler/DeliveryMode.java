@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+/**
+ * How delivery of a sent message is confirmed
+ */
+public enum DeliveryMode {
+    /**
+     * Send a single packet, and do not wait for any reply
+     */
+    NONE,
+    /**
+     * Set ack_required, and wait for an {@link com.stuntguy3000.lifxlansdk.messages.state.core.Acknowledgement} (45)
+     * <p>
+     * Acknowledgements carry no payload, so they are the cheapest way to confirm a Set message has been received.
+     */
+    ACKNOWLEDGEMENT,
+    /**
+     * Set res_required, and wait for the State message the device responds with
+     */
+    RESPONSE
+}
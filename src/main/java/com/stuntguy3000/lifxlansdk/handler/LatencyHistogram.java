@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies (in ns), with a fixed relative precision
+ * <p>
+ * Values are counted in log-linear buckets, as HdrHistogram does: each power of two is split into 16 equal buckets, so
+ * any recorded value is reported to within ~6%, using a fixed ~8 KB regardless of how many values are recorded.
+ * Recording is lock-free and never allocates.
+ */
+public class LatencyHistogram {
+    /**
+     * Values below 2^SUB_BUCKET_BITS have a bucket each, larger values share a bucket with their nearest neighbours
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value
+     *
+     * @param value the value (in ns), negative values are recorded as zero
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return the amount of values recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the mean of the values recorded (in ns), or zero if none have been recorded
+     */
+    public double getMean() {
+        long count = getCount();
+
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @return the largest value recorded (in ns)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value at a percentile
+     *
+     * @param percentile the percentile (0 - 100), e.g. 99.9
+     *
+     * @return the value (in ns) which the given percentage of recorded values are less than or equal to, to within the
+     * histogram's precision, or zero if no values have been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+        long seen = 0;
+
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += counts.get(index);
+
+            if (seen >= rank) {
+                return Math.min(highestValueInBucket(index), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * The bucket a value is counted in
+     *
+     * @param value the value (zero or more)
+     *
+     * @return the bucket index
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        // Keep the top SUB_BUCKET_BITS bits of the value, the leading one bit picks the upper half of the sub buckets
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * The largest value counted in a bucket
+     *
+     * @param index the bucket index
+     *
+     * @return the value
+     */
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import com.stuntguy3000.lifxlansdk.event.EventType;
+import com.stuntguy3000.lifxlansdk.event.Events;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A queue of packets waiting to be sent to a single target, paced by a token bucket
+ * <p>
+ * LIFX devices drop packets sent to them faster than ~20 messages per second. Rather than writing every packet
+ * immediately (and relying on retransmissions to recover what is dropped), packets for each target are queued and
+ * written no faster than the {@link Transport}'s rate limit allows. Packets are written by whichever thread finds a
+ * token available: usually the sending thread, otherwise the transport's scheduler once the bucket has refilled. The
+ * lock is only held to queue and take packets, never while writing them.
+ * <p>
+ * {@link Supersedable} messages are coalesced: a queued message superseded by a newer one is replaced by it in place,
+ * and unanswered requests superseded by a newer one stop being retransmitted.
+ */
+class OutboundQueue {
+    private final Transport transport;
+    /**
+     * The packed target MAC address this queue writes to (zero for broadcasts)
+     */
+    private final long target;
+    private final LinkedList<Entry> entries = new LinkedList<>();
+    /**
+     * Requests for {@link Supersedable} messages which have been queued but not yet completed
+     */
+    private final List<PendingRequest> unansweredSupersedable = new ArrayList<>();
+    /**
+     * The amount of packets which can be written right now, refilled at the rate limit up to the burst size
+     */
+    private double tokens = Double.NaN;
+    private long lastRefillNanos;
+    private boolean drainScheduled = false;
+    /**
+     * True while a thread is writing packets taken from this queue, so packets are written in order without the lock
+     * being held during the write
+     */
+    private boolean writing = false;
+
+    OutboundQueue(Transport transport, long target) {
+        this.transport = transport;
+        this.target = target;
+    }
+
+    /**
+     * Queue a packet to be written, writing it immediately if the rate limit allows
+     * <p>
+     * If another thread is already writing this queue's packets, that thread writes this one too.
+     *
+     * @param entry the packet to write
+     *
+     * @return the amount of packets still waiting to be written
+     */
+    int add(Entry entry) {
+        Message message = entry.getPacket().getMessage();
+        List<Entry> writable;
+        int queueDepth;
+
+        synchronized (this) {
+            if (message instanceof Supersedable) {
+                // A retransmission can be scheduled before its request is superseded, which is only certain under the
+                // lock
+                if (entry.getPendingRequest() == null || entry.getPendingRequest().getSupersededBy() == null) {
+                    supersede((Supersedable) message, entry);
+                }
+            } else {
+                entries.add(entry);
+            }
+
+            writable = takeWritable();
+            queueDepth = entries.size();
+        }
+
+        write(writable);
+
+        return queueDepth;
+    }
+
+    /**
+     * Queue a {@link Supersedable} message, replacing any older message with the same effect
+     * <p>
+     * Messages are ordered by correlation id (see {@link Packet#getCorrelationId()}), so a retransmission of an older
+     * request never replaces or supersedes a newer one.
+     *
+     * @param message the message being queued
+     * @param entry   the packet to write
+     */
+    private void supersede(Supersedable message, Entry entry) {
+        PendingRequest pendingRequest = entry.getPendingRequest();
+        long correlationId = entry.getPacket().getCorrelationId();
+
+        // Unanswered requests with the same effect must not be retransmitted over this one
+        //  Only requests are superseded by requests, so that whoever awaits the older request still gets a reply
+        if (pendingRequest != null && !unansweredSupersedable.contains(pendingRequest)) {
+            for (PendingRequest unanswered : new ArrayList<>(unansweredSupersedable)) {
+                if (unanswered.getPacket().getCorrelationId() < correlationId && message.supersedes(unanswered.getPacket().getMessage())) {
+                    unansweredSupersedable.remove(unanswered);
+                    unanswered.supersede(pendingRequest);
+                }
+            }
+
+            unansweredSupersedable.add(pendingRequest);
+            pendingRequest.getFuture().whenComplete((packets, throwable) -> forget(pendingRequest));
+        }
+
+        // Replace a queued message with the same effect, keeping its place in the queue
+        ListIterator<Entry> iterator = entries.listIterator();
+        while (iterator.hasNext()) {
+            Entry queued = iterator.next();
+
+            if (!message.supersedes(queued.getPacket().getMessage())) {
+                continue;
+            }
+
+            if (queued.getPacket().getCorrelationId() > correlationId) {
+                // A newer message is already queued, write this one first so the newer one still wins
+                iterator.previous();
+                iterator.add(entry);
+                return;
+            }
+
+            if (queued.getPendingRequest() == null || pendingRequest != null) {
+                iterator.set(entry);
+
+                if (queued.getPendingRequest() != null && queued.getPendingRequest() != pendingRequest) {
+                    queued.getPendingRequest().supersede(pendingRequest);
+                }
+
+                return;
+            }
+        }
+
+        entries.add(entry);
+    }
+
+    private synchronized void forget(PendingRequest pendingRequest) {
+        unansweredSupersedable.remove(pendingRequest);
+    }
+
+    /**
+     * Take queued packets until the queue is empty or the bucket runs dry, in which case a drain is scheduled for when
+     * the next token is available
+     * <p>
+     * Must be called holding the lock. Nothing is taken while another thread is writing, as it takes any remaining
+     * packets once it is done.
+     *
+     * @return the packets to write, in order
+     */
+    private List<Entry> takeWritable() {
+        if (writing) {
+            return Collections.emptyList();
+        }
+
+        List<Entry> writable = new ArrayList<>();
+
+        while (!entries.isEmpty()) {
+            // Requests cancelled (or out of time) while queued are never written
+            PendingRequest pendingRequest = entries.peek().getPendingRequest();
+            if (pendingRequest != null && pendingRequest.getFuture().isDone()) {
+                entries.poll();
+                continue;
+            }
+
+            double rateLimit = transport.getRateLimit();
+
+            if (rateLimit > 0) {
+                refill(rateLimit, Math.max(1, transport.getRateLimitBurst()));
+
+                if (tokens < 1) {
+                    if (!drainScheduled) {
+                        long delayNanos = (long) Math.ceil((1 - tokens) / rateLimit * TimeUnit.SECONDS.toNanos(1));
+
+                        drainScheduled = true;
+                        transport.getScheduler().schedule(this::scheduledDrain, delayNanos, TimeUnit.NANOSECONDS);
+                    }
+
+                    break;
+                }
+
+                tokens--;
+            }
+
+            Entry entry = entries.poll();
+            if (pendingRequest != null) {
+                pendingRequest.markWritten();
+            }
+
+            writable.add(entry);
+        }
+
+        writing = !writable.isEmpty();
+
+        return writable;
+    }
+
+    /**
+     * Write packets taken from the queue, outside the lock so neither the socket nor the metrics hold up other senders,
+     * and then any packets which became writable meanwhile
+     *
+     * @param writable the packets to write, in order
+     */
+    private void write(List<Entry> writable) {
+        while (!writable.isEmpty()) {
+            try {
+                writable.forEach(this::write);
+            } finally {
+                synchronized (this) {
+                    writing = false;
+                }
+            }
+
+            synchronized (this) {
+                writable = takeWritable();
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        PendingRequest pendingRequest = entry.getPendingRequest();
+        Packet packet = entry.getPacket();
+        int attempt = pendingRequest == null ? 1 : pendingRequest.getTransmissions();
+        int messageType = packet.getProtocolHeader().getType();
+
+        // Published before writing, so it can never follow the reply's event
+        Events.packet(attempt > 1 ? EventType.RETRY : EventType.SEND, packet.getCorrelationId(), target, messageType, attempt);
+
+        transport.write(packet, entry.getAddress(), entry.getPort());
+        transport.report(reporter -> reporter.packetSent(target, messageType, attempt > 1));
+
+        if (entry.getOnWritten() != null) {
+            entry.getOnWritten().run();
+        }
+    }
+
+    private void scheduledDrain() {
+        List<Entry> writable;
+
+        synchronized (this) {
+            drainScheduled = false;
+            writable = takeWritable();
+        }
+
+        write(writable);
+    }
+
+    /**
+     * Add the tokens accumulated since the last refill
+     *
+     * @param rateLimit the rate at which tokens accumulate (per second)
+     * @param burst     the maximum amount of tokens
+     */
+    private void refill(double rateLimit, int burst) {
+        long now = System.nanoTime();
+
+        if (Double.isNaN(tokens)) {
+            // First use, start with a full bucket
+            tokens = burst;
+        } else {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * rateLimit / TimeUnit.SECONDS.toNanos(1));
+        }
+
+        lastRefillNanos = now;
+    }
+
+    /**
+     * A packet waiting to be written
+     */
+    @Getter
+    @AllArgsConstructor
+    static class Entry {
+        private final Packet packet;
+        private final InetAddress address;
+        private final int port;
+        /**
+         * The request this packet was sent for, or null if no replies are awaited
+         */
+        private final PendingRequest pendingRequest;
+        /**
+         * Run once the packet has been written, can be null
+         */
+        private final Runnable onWritten;
+    }
+}
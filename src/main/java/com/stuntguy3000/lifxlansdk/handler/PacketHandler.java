@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.handler;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.messages.state.core.Acknowledgement;
 import com.stuntguy3000.lifxlansdk.messages.state.device.*;
 import com.stuntguy3000.lifxlansdk.messages.state.discovery.StateService;
@@ -29,84 +30,122 @@ import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
 import com.stuntguy3000.lifxlansdk.object.protocol.ProtocolHeader;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import lombok.Getter;
 import lombok.Setter;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
-import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * A handler for all Packet related functions
  */
 public class PacketHandler {
     /**
-     * A map of packet ID and it's associated Message class for packet object response mapping
+     * The highest packet ID (exclusive) that can be mapped to a response Message
      */
-    private static final HashMap<Integer, Class<? extends Message>> responseMessagesMap = new HashMap<>();
+    private static final int MAX_MESSAGE_TYPE = 1024;
     /**
-     * Packet sequence number
+     * A table of response Message factories indexed by packet ID, for packet object response mapping
      * <p>
-     * For usage, see {@link PacketHandler#getNextPacketSequenceNumber()}
+     * Generic arrays cannot be created, so the table is created raw; only factories registered by {@link
+     * #registerResponseMessage(Supplier)} are ever stored in it.
      */
-    private static short sequence = 0;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Supplier<? extends Message>[] responseMessages = new Supplier[MAX_MESSAGE_TYPE];
+    /**
+     * The amount of copies of a broadcast message sent by {@link #broadcastMessageAsync(Message, Duration, int,
+     * Duration)}, in case some are lost
+     */
+    private static final int DISCOVERY_BURSTS = 3;
+    private static final int DISCOVERY_BURST_INTERVAL_MS = 100;
     /**
      * The broadcast address to send packets on.
      */
     @Setter
     private static InetAddress broadcastAddress = null;
+    /**
+     * The port to broadcast packets to
+     */
+    @Getter
+    @Setter
+    private static int broadcastPort = 56700;
+    /**
+     * The amount of messages sent straight to a device's cached IP address
+     */
+    private static final LongAdder unicastCount = new LongAdder();
+    /**
+     * The amount of messages broadcast to reach every device
+     */
+    private static final LongAdder broadcastCount = new LongAdder();
+    /**
+     * The amount of messages for a single device which were broadcast, as its IP address was unknown or stale
+     */
+    private static final LongAdder broadcastFallbackCount = new LongAdder();
+    /**
+     * The shared transport, see {@link PacketHandler#getTransport()}
+     */
+    private static Transport transport = null;
+
+    static {
+        //      Core
+        registerResponseMessage(Acknowledgement::new);
+
+        //      Device
+        registerResponseMessage(EchoResponse::new);
+        registerResponseMessage(StateGroup::new);
+        registerResponseMessage(StateHostFirmware::new);
+        registerResponseMessage(StateInfo::new);
+        registerResponseMessage(StateLabel::new);
+        registerResponseMessage(StateLocation::new);
+        registerResponseMessage(StatePower::new);
+        registerResponseMessage(StateVersion::new);
+        registerResponseMessage(StateWifiFirmware::new);
+        registerResponseMessage(StateWifiInfo::new);
+        registerResponseMessage(StateUnhandled::new);
+
+        //      Discovery
+        registerResponseMessage(StateService::new);
+
+        //      Light
+        registerResponseMessage(LightState::new);
+        registerResponseMessage(StateHevCycle::new);
+        registerResponseMessage(StateHevCycleConfiguration::new);
+        registerResponseMessage(StateInfrared::new);
+        registerResponseMessage(StateLastHevCycleResult::new);
+        registerResponseMessage(StateLightPower::new);
+
+        //      Multizone
+        registerResponseMessage(StateMultiZone::new);
+        registerResponseMessage(StateZone::new);
+        registerResponseMessage(StateMultiZoneEffect::new);
+        registerResponseMessage(StateExtendedColorZones::new);
+
+        //      Relay
+        registerResponseMessage(StateRPower::new);
+
+        //      Tile
+        registerResponseMessage(State64::new);
+        registerResponseMessage(StateDeviceChain::new);
+        registerResponseMessage(StateTileEffect::new);
+    }
 
     /**
-     * Initializes the responseMessagesMap object
-     */
-    private static void init() {
-        if (responseMessagesMap.isEmpty()) {
-            //      Core
-            responseMessagesMap.put(new Acknowledgement().getType(), Acknowledgement.class);
-
-            //      Device
-            responseMessagesMap.put(new EchoResponse("").getType(), EchoResponse.class);
-            responseMessagesMap.put(new StateGroup().getType(), StateGroup.class);
-            responseMessagesMap.put(new StateHostFirmware().getType(), StateHostFirmware.class);
-            responseMessagesMap.put(new StateInfo().getType(), StateInfo.class);
-            responseMessagesMap.put(new StateLabel().getType(), StateLabel.class);
-            responseMessagesMap.put(new StateLocation().getType(), StateLocation.class);
-            responseMessagesMap.put(new StatePower().getType(), StatePower.class);
-            responseMessagesMap.put(new StateVersion().getType(), StateVersion.class);
-            responseMessagesMap.put(new StateWifiFirmware().getType(), StateWifiFirmware.class);
-            responseMessagesMap.put(new StateWifiInfo().getType(), StateWifiInfo.class);
-            responseMessagesMap.put(new StateUnhandled().getType(), StateUnhandled.class);
-
-            //      Discovery
-            responseMessagesMap.put(new StateService().getType(), StateService.class);
-
-            //      Light
-            responseMessagesMap.put(new LightState().getType(), LightState.class);
-            responseMessagesMap.put(new StateHevCycle().getType(), StateHevCycle.class);
-            responseMessagesMap.put(new StateHevCycleConfiguration().getType(), StateHevCycleConfiguration.class);
-            responseMessagesMap.put(new StateInfrared().getType(), StateInfrared.class);
-            responseMessagesMap.put(new StateLastHevCycleResult().getType(), StateLastHevCycleResult.class);
-            responseMessagesMap.put(new StateLightPower().getType(), StateLightPower.class);
-
-            //      Multizone
-            responseMessagesMap.put(new StateMultiZone().getType(), StateMultiZone.class);
-            responseMessagesMap.put(new StateZone().getType(), StateZone.class);
-            responseMessagesMap.put(new StateMultiZoneEffect().getType(), StateMultiZoneEffect.class);
-            responseMessagesMap.put(new StateExtendedColorZones().getType(), StateExtendedColorZones.class);
-
-            //      Relay
-            responseMessagesMap.put(new StateRPower().getType(), StateRPower.class);
-
-            //      Tile
-            responseMessagesMap.put(new State64().getType(), State64.class);
-            responseMessagesMap.put(new StateDeviceChain().getType(), StateDeviceChain.class);
-            responseMessagesMap.put(new StateTileEffect().getType(), StateTileEffect.class);
-        }
+     * Registers a response Message factory under the packet ID of the messages it creates
+     *
+     * @param factory the message factory
+     */
+    private static void registerResponseMessage(Supplier<? extends Message> factory) {
+        responseMessages[factory.get().getType()] = factory;
     }
 
     /**
@@ -187,107 +226,405 @@ public class PacketHandler {
      * @param retry                  the amount of retries if socket the socket timeout is hit
      *
      * @return a list of returned packets (usually 1), can be empty
+     *
+     * @throws IllegalStateException if called from a transport thread (see {@link Transport#isTransportThread()})
      */
     public static List<Packet> sendMessage(Message message, Device device, boolean resultRequired, int maxReceiveMessageCount, int timeout, int retry) {
+        Transport.requireNotTransportThread();
+
+        return sendMessageAsync(message, device, resultRequired, maxReceiveMessageCount, timeout, retry).join();
+    }
+
+    /**
+     * Send a Message to a device
+     * <p>
+     * This function piggybacks off other functions to use default values for: - maxReceiveMessageCount - timeout -
+     * retry
+     *
+     * @param message      the message to send
+     * @param device       the device to send it to
+     * @param deliveryMode how delivery of the message is confirmed
+     *
+     * @return a list of returned packets (usually 1), can be empty
+     *
+     * @throws IllegalStateException if called from a transport thread (see {@link Transport#isTransportThread()})
+     */
+    public static List<Packet> sendMessage(Message message, Device device, DeliveryMode deliveryMode) {
+        Transport.requireNotTransportThread();
+
+        return sendMessageAsync(message, device, deliveryMode).join();
+    }
+
+    /**
+     * Send a Message to a device, bounded by an overall deadline
+     * <p>
+     * This function piggybacks off other functions to use default values for: - maxReceiveMessageCount - timeout.
+     * Retries are made for as long as the deadline allows.
+     *
+     * @param message  the message to send
+     * @param device   the device to send it to
+     * @param deadline the overall time budget for the request, which bounds the retries (not null)
+     *
+     * @return a list of returned packets (usually 1), can be empty
+     *
+     * @throws IllegalStateException if called from a transport thread (see {@link Transport#isTransportThread()})
+     */
+    public static List<Packet> sendMessage(Message message, Device device, Duration deadline) {
+        Transport.requireNotTransportThread();
+
+        return sendMessageAsync(message, device, deadline).join();
+    }
+
+    /**
+     * Send a Message to a device, bounded by an overall deadline
+     * <p>
+     * This function piggybacks off other functions to use default values for: - timeout. Retries are made for as long
+     * as the deadline allows.
+     *
+     * @param message                the message to send
+     * @param device                 the device to send it to
+     * @param deliveryMode           how delivery of the message is confirmed
+     * @param maxReceiveMessageCount the amount of messages to receive before returning all packets (used for
+     *                               optimization)
+     * @param deadline               the overall time budget for the request, which bounds the retries (not null)
+     *
+     * @return a list of returned packets (usually 1), can be empty
+     *
+     * @throws IllegalStateException if called from a transport thread (see {@link Transport#isTransportThread()})
+     */
+    public static List<Packet> sendMessage(Message message, Device device, DeliveryMode deliveryMode, int maxReceiveMessageCount, Duration deadline) {
+        Transport.requireNotTransportThread();
+
+        return sendMessageAsync(message, device, deliveryMode, maxReceiveMessageCount, deadline).join();
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * This function piggybacks off other functions to use default values for: - resultRequired -
+     * maxReceiveMessageCount - timeout - retry
+     *
+     * @param message the message to send
+     * @param device  the device to send it to
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device) {
+        return sendMessageAsync(message, device, true);
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * This function piggybacks off other functions to use default values for: - maxReceiveMessageCount - timeout -
+     * retry
+     *
+     * @param message        the message to send
+     * @param device         the device to send it to
+     * @param resultRequired true if a result is required (return packet)
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, boolean resultRequired) {
+        return sendMessageAsync(message, device, resultRequired, 1);
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * This function piggybacks off other functions to use default values for: - timeout - retry
+     *
+     * @param message                the message to send
+     * @param device                 the device to send it to
+     * @param resultRequired         true if a result is required (return packet)
+     * @param maxReceiveMessageCount the amount of messages to receive before returning all packets (used for
+     *                               optimization)
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, boolean resultRequired, int maxReceiveMessageCount) {
+        return sendMessageAsync(message, device, resultRequired, maxReceiveMessageCount, 250);
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * This function piggybacks off other functions to use default values for: - retry
+     *
+     * @param message                the message to send
+     * @param device                 the device to send it to
+     * @param resultRequired         true if a result is required (return packet)
+     * @param maxReceiveMessageCount the amount of messages to receive before returning all packets (used for
+     *                               optimization)
+     * @param timeout                the maximum wait time for replies (in ms)
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, boolean resultRequired, int maxReceiveMessageCount, int timeout) {
+        return sendMessageAsync(message, device, resultRequired, maxReceiveMessageCount, timeout, 10);
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * This function piggybacks off {@link #sendMessageAsync(Message, Device, DeliveryMode, int, int, int)}, requiring a
+     * response if resultRequired is true, or sending a single packet if not.
+     *
+     * @param message                the message to send
+     * @param device                 the device to send it to
+     * @param resultRequired         true if a result is required (return packet)
+     * @param maxReceiveMessageCount the amount of messages to receive before returning all packets (used for
+     *                               optimization)
+     * @param timeout                the maximum wait time for replies (in ms)
+     * @param retry                  the amount of retries if socket the socket timeout is hit
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, boolean resultRequired, int maxReceiveMessageCount, int timeout, int retry) {
+        return sendMessageAsync(message, device, resultRequired ? DeliveryMode.RESPONSE : DeliveryMode.NONE, maxReceiveMessageCount, timeout, retry);
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * This function piggybacks off other functions to use default values for: - maxReceiveMessageCount - timeout -
+     * retry
+     *
+     * @param message      the message to send
+     * @param device       the device to send it to
+     * @param deliveryMode how delivery of the message is confirmed
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, DeliveryMode deliveryMode) {
+        return sendMessageAsync(message, device, deliveryMode, 1, 250, 10);
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * This function piggybacks off other functions to use the device's default deadline (see {@link
+     * Device#setDeadline(Duration)})
+     *
+     * @param message                the message to send
+     * @param device                 the device to send it to
+     * @param deliveryMode           how delivery of the message is confirmed
+     * @param maxReceiveMessageCount the amount of messages to receive before returning all packets (used for
+     *                               optimization)
+     * @param timeout                the maximum wait time for replies (in ms)
+     * @param retry                  the amount of retries if socket the socket timeout is hit
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, DeliveryMode deliveryMode, int maxReceiveMessageCount, int timeout, int retry) {
+        return sendMessageAsync(message, device, deliveryMode, maxReceiveMessageCount, timeout, retry, device == null ? null : device.getDeadline());
+    }
+
+    /**
+     * Send a Message to a device asynchronously, bounded by an overall deadline
+     * <p>
+     * This function piggybacks off other functions to use default values for: - maxReceiveMessageCount - timeout.
+     * Retries are made for as long as the deadline allows.
+     *
+     * @param message  the message to send
+     * @param device   the device to send it to
+     * @param deadline the overall time budget for the request, which bounds the retries (not null)
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, Duration deadline) {
+        return sendMessageAsync(message, device, DeliveryMode.RESPONSE, 1, deadline);
+    }
+
+    /**
+     * Send a Message to a device asynchronously, bounded by an overall deadline
+     * <p>
+     * This function piggybacks off other functions to use default values for: - timeout. Retries are made for as long
+     * as the deadline allows.
+     *
+     * @param message                the message to send
+     * @param device                 the device to send it to
+     * @param deliveryMode           how delivery of the message is confirmed
+     * @param maxReceiveMessageCount the amount of messages to receive before returning all packets (used for
+     *                               optimization)
+     * @param deadline               the overall time budget for the request, which bounds the retries (not null)
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, DeliveryMode deliveryMode, int maxReceiveMessageCount, Duration deadline) {
+        // Without a deadline, unlimited retries would never end
+        Objects.requireNonNull(deadline, "deadline");
+
+        return sendMessageAsync(message, device, deliveryMode, maxReceiveMessageCount, 250, Integer.MAX_VALUE, deadline);
+    }
+
+    /**
+     * Send a Message to a device asynchronously
+     * <p>
+     * The returned future is completed by the transport's receive thread, so the calling thread is never blocked and
+     * many requests can be in flight at once. Dependent stages may also run on that thread, so slow work should be
+     * chained with the *Async variants of {@link CompletableFuture}.
+     * <p>
+     * With {@link DeliveryMode#ACKNOWLEDGEMENT}, the returned packets are the device's acknowledgements rather than
+     * State messages.
+     * <p>
+     * Retries are only made within the deadline, if there is one. Cancelling the returned future stops the request.
+     *
+     * @param message                the message to send
+     * @param device                 the device to send it to
+     * @param deliveryMode           how delivery of the message is confirmed
+     * @param maxReceiveMessageCount the amount of messages to receive before returning all packets (used for
+     *                               optimization)
+     * @param timeout                the maximum wait time for replies (in ms)
+     * @param retry                  the amount of retries if socket the socket timeout is hit
+     * @param deadline               the overall time budget for the request, after which the future is completed with
+     *                               the packets returned so far (null for no deadline)
+     *
+     * @return a future completed with the returned packets (usually 1), can be empty
+     */
+    public static CompletableFuture<List<Packet>> sendMessageAsync(Message message, Device device, DeliveryMode deliveryMode, int maxReceiveMessageCount, int timeout, int retry, Duration deadline) {
         // Init
-        init();
+        Transport transport = getTransport();
 
         // Build Packet
-        Packet packet = buildPacket(message, device, resultRequired);
-        List<Packet> returnedPackets = new ArrayList<>();
+        Packet packet = buildPacket(message, device, deliveryMode);
+
+        // Send Packet
+        InetAddress targetAddress;
+        int targetPort;
+        boolean unicast = false;
+
+        if (device == null) {
+            // Broadcast Packet
+            targetAddress = broadcastAddress;
+            targetPort = broadcastPort;
+            broadcastCount.increment();
+        } else if (device.getIpAddress() == null || (device.isIpAddressStale() && broadcastAddress != null)) {
+            // Targeted Packet, but we don't know where the device is
+            //  The packet is broadcast with the device's MAC address as the target, so only that device replies
+            //  A stale address is still used when there is no broadcast address to fall back to
+            targetAddress = broadcastAddress;
+            targetPort = broadcastPort;
+            broadcastFallbackCount.increment();
+        } else {
+            // Targeted Packet
+            targetAddress = device.getIpAddress();
+            targetPort = device.getServicePort();
+            unicast = true;
+            unicastCount.increment();
+        }
 
-        while (retry > 0) {
-            try {
-                // Send Packet
-                InetAddress targetAddress;
-                int targetPort = 56700;
-
-                if (device == null) {
-                    // Broadcast Packet
-                    targetAddress = broadcastAddress;
-                } else {
-                    // Targeted Packet
-                    targetAddress = device.getIpAddress();
-                    targetPort = device.getServicePort();
-                }
+        if (deliveryMode == DeliveryMode.NONE) {
+            transport.send(packet, targetAddress, targetPort);
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
 
-                byte[] sendData = packet.toBytes();
+        long startNanos = System.nanoTime();
+        CompletableFuture<List<Packet>> future = transport.request(packet, targetAddress, targetPort, maxReceiveMessageCount, timeout, retry, deadline);
 
-                DatagramSocket socket = new DatagramSocket();
-                DatagramPacket datagramPacket = new DatagramPacket(sendData, sendData.length, targetAddress, targetPort);
+        if (device != null) {
+            boolean sentUnicast = unicast;
 
-                socket.setReuseAddress(true);
+            // Learn where the device is from its replies, or count a miss if it stopped replying at its address
+            //  A request cut short by its deadline used fewer attempts than usual, so it does not count as a miss
+            future.thenAccept(packets -> {
+                if (!packets.isEmpty()) {
+                    if (!sentUnicast) {
+                        device.setIpAddress(packets.get(0).getIpAddress());
+                    }
 
-                if (!resultRequired) {
-                    socket.send(datagramPacket);
-                    return returnedPackets;
+                    device.recordReply();
+                } else if (sentUnicast && (deadline == null || System.nanoTime() - startNanos < deadline.toNanos())) {
+                    device.recordMissedReply();
                 }
+            });
+        }
 
-                socket.setSoTimeout(timeout);
-                socket.send(datagramPacket);
-
-                // Process Replies
-                // Keep going until we time out
-                while (true) {
-                    // Wait to receive
-                    byte[] receivedData = new byte[1024]; // LIFX Packets can get big! Biggest seen is stateDeviceChain at 918 bytes.
-                    DatagramPacket receivedDatagramPacket = new DatagramPacket(receivedData, receivedData.length);
-                    socket.receive(receivedDatagramPacket);
-
-                    // Process Result
-                    Packet receivedPacket = buildPacket(receivedData);
-
-                    // Does it have a payload?
-                    if (receivedPacket != null && receivedPacket.getMessage() != null) {
-                        receivedPacket.setIpAddress(receivedDatagramPacket.getAddress());
-
-                        // Is it unique?
-                        //  This over-complex function compares a few things to try to figure this out
-                        //
-                        //  Packet delivery assurance techniques can mean duplicates can happen, but some API calls
-                        //  return multiple packets per request, so, we try to accommodate that whilst comparing payload
-                        //  information.
-                        boolean unique = true;
-                        for (Packet returnedPacket : returnedPackets) {
-                            if (receivedPacket.getIpAddress().equals(returnedPacket.getIpAddress())) {
-                                if (receivedPacket.getProtocolHeader().getType() == returnedPacket.getProtocolHeader().getType()) {
-                                    if (returnedPacket.getFrameAddress().getSequence() == sequence) {
-                                        byte[] receivedPacketMessageBytes = receivedPacket.getMessage().toBytes();
-                                        byte[] returnedPacketMessageBytes = returnedPacket.getMessage().toBytes();
-
-                                        // Only some packets are cared about, those have defined toBytes, if not, they will be zero and can be ignored
-                                        if (receivedPacketMessageBytes.length > 0 && returnedPacketMessageBytes.length > 0) {
-                                            if (Arrays.equals(receivedPacketMessageBytes, returnedPacketMessageBytes)) {
-                                                unique = false;
-                                                break;
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-
-                        if (unique) {
-                            returnedPackets.add(receivedPacket);
-
-                            // Have we received enough packets?
-                            --maxReceiveMessageCount;
-                            if (maxReceiveMessageCount == 0) {
-                                socket.close();
-                                return returnedPackets;
-                            }
-                        }
-                    }
-                }
-            } catch (SocketTimeoutException socketTimeoutException) {
-                --retry;
+        return future;
+    }
+
+    /**
+     * Get the amount of messages sent straight to a device's cached IP address
+     *
+     * @return the amount of unicast messages
+     */
+    public static long getUnicastCount() {
+        return unicastCount.sum();
+    }
+
+    /**
+     * Get the amount of messages broadcast to reach every device
+     *
+     * @return the amount of broadcast messages
+     */
+    public static long getBroadcastCount() {
+        return broadcastCount.sum();
+    }
+
+    /**
+     * Get the amount of messages for a single device which were broadcast, as its IP address was unknown or stale
+     *
+     * @return the amount of broadcast fallback messages
+     */
+    public static long getBroadcastFallbackCount() {
+        return broadcastFallbackCount.sum();
+    }
+
+    /**
+     * Broadcast a Message to all devices asynchronously, completing once devices stop replying
+     * <p>
+     * The message is broadcast {@value #DISCOVERY_BURSTS} times, {@value #DISCOVERY_BURST_INTERVAL_MS}ms apart, and
+     * replies are collected until no new device has replied for the quiet window, the expected amount of devices have
+     * replied, or the deadline passes.
+     *
+     * @param message         the message to broadcast
+     * @param quietWindow     how long to wait for a new device to reply before completing
+     * @param expectedDevices the amount of devices expected to reply, to complete early (zero if unknown)
+     * @param deadline        the overall time budget (null for no deadline)
+     *
+     * @return a future completed with the returned packets, can be empty
+     */
+    public static CompletableFuture<List<Packet>> broadcastMessageAsync(Message message, Duration quietWindow, int expectedDevices, Duration deadline) {
+        return broadcastMessageAsync(message, DISCOVERY_BURSTS, quietWindow, expectedDevices, deadline);
+    }
+
+    /**
+     * Broadcast a Message to all devices asynchronously, completing once devices stop replying
+     * <p>
+     * The message is broadcast the given amount of times, {@value #DISCOVERY_BURST_INTERVAL_MS}ms apart.
+     *
+     * @param message         the message to broadcast
+     * @param bursts          how many times to broadcast the message
+     * @param quietWindow     how long to wait for a new device to reply before completing
+     * @param expectedDevices the amount of devices expected to reply, to complete early (zero if unknown)
+     * @param deadline        the overall time budget (null for no deadline)
+     *
+     * @return a future completed with the returned packets, can be empty
+     *
+     * @see #broadcastMessageAsync(Message, Duration, int, Duration)
+     */
+    public static CompletableFuture<List<Packet>> broadcastMessageAsync(Message message, int bursts, Duration quietWindow, int expectedDevices, Duration deadline) {
+        Packet packet = buildPacket(message, null, DeliveryMode.RESPONSE);
+        broadcastCount.add(bursts);
+
+        return getTransport().discover(packet, broadcastAddress, broadcastPort, bursts, Duration.ofMillis(DISCOVERY_BURST_INTERVAL_MS), quietWindow, expectedDevices, deadline);
+    }
+
+    /**
+     * Returns the shared transport used to send all messages, creating it if required
+     *
+     * @return the shared transport
+     */
+    public static synchronized Transport getTransport() {
+        if (transport == null) {
+            try {
+                transport = new Transport();
             } catch (IOException exception) {
-                exception.printStackTrace();
+                throw new UncheckedIOException(exception);
             }
         }
 
-        // Return Received Messages
-        return returnedPackets;
+        return transport;
     }
 
     /**
@@ -297,9 +634,30 @@ public class PacketHandler {
      *
      * @return the constructed packet (or null if invalid)
      */
-    private static Packet buildPacket(byte[] receivedData) {
-        int packetSize = TypeUtil.littleEndianBytesToUint16(receivedData[0], receivedData[1]);
-        if (packetSize < 36) {
+    public static Packet buildPacket(byte[] receivedData) {
+        return buildPacket(ByteBuffer.wrap(receivedData));
+    }
+
+    /**
+     * Builds a LIFX Packet from received data, decoding straight from the buffer without copying
+     * <p>
+     * The packet is read from the buffer's position onwards. The buffer's position is left untouched, however its byte
+     * order is set to little-endian.
+     *
+     * @param buffer the received data
+     *
+     * @return the constructed packet (or null if invalid)
+     */
+    public static Packet buildPacket(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        int offset = buffer.position();
+        if (buffer.remaining() < Packet.HEADER_SIZE) {
+            return null;
+        }
+
+        int packetSize = buffer.getShort(offset) & 0xffff;
+        if (packetSize < Packet.HEADER_SIZE || packetSize > buffer.remaining()) {
             return null;
         }
 
@@ -309,50 +667,52 @@ public class PacketHandler {
             FrameAddress frameAddress = new FrameAddress();
             ProtocolHeader protocolHeader = new ProtocolHeader();
 
-            byte[] frameHeaderBytes = new byte[8];
-            byte[] frameAddressBytes = new byte[16];
-            byte[] protocolHeaderBytes = new byte[12];
-
-            System.arraycopy(receivedData, 0, frameHeaderBytes, 0, 8);
-            System.arraycopy(receivedData, 8, frameAddressBytes, 0, 16);
-            System.arraycopy(receivedData, 24, protocolHeaderBytes, 0, 12);
-
-            frameHeader.decodeBytes(frameHeaderBytes);
-            frameAddress.decodeBytes(frameAddressBytes);
-            protocolHeader.decodeBytes(protocolHeaderBytes);
+            frameHeader.decodeFrom(buffer, offset, 8);
+            frameAddress.decodeFrom(buffer, offset + 8, 16);
+            protocolHeader.decodeFrom(buffer, offset + 24, 12);
 
             // Process Message
-            byte[] messageBytes = new byte[packetSize - 36];
-            System.arraycopy(receivedData, 36, messageBytes, 0, messageBytes.length);
-            Message message = buildMessage(protocolHeader.getType(), messageBytes);
+            Message message = buildMessage(protocolHeader.getType(), buffer, offset + Packet.HEADER_SIZE, packetSize - Packet.HEADER_SIZE);
 
             // Return Packet
             return new Packet(frameHeader, frameAddress, protocolHeader, message);
         } catch (Exception exception) {
-            exception.printStackTrace();
+            // Bytes 8 - 13 of the Frame Address hold the sender, bytes 32 - 33 of the Protocol Header the message type
+            Events.decodeError(TypeUtil.bufferToMacAddressLong(buffer, offset + 8), buffer.getShort(offset + 32) & 0xffff, exception);
         }
 
         return null;
     }
 
+    /**
+     * Checks if a message type can be decoded, allowing received packets to be discarded before decoding them
+     *
+     * @param messageType the type of message (packet ID)
+     *
+     * @return true if the message type is a known response
+     */
+    static boolean isKnownMessageType(int messageType) {
+        return messageType >= 0 && messageType < MAX_MESSAGE_TYPE && responseMessages[messageType] != null;
+    }
+
     /**
      * Internal packet builder for packets to be sent, not received. For received packet processing, see the other
      * buildPacket function
      *
-     * @param message        the message
-     * @param device         the targeted device, can be null to represent a broadcast
-     * @param resultRequired if a result is required (only useful for controlling Set requests)
+     * @param message      the message
+     * @param device       the targeted device, can be null to represent a broadcast
+     * @param deliveryMode how delivery of the message is confirmed (only useful for controlling Set requests)
      *
      * @return the constructed packet (or null)
      */
-    private static Packet buildPacket(Message message, Device device, boolean resultRequired) {
+    private static Packet buildPacket(Message message, Device device, DeliveryMode deliveryMode) {
         FrameHeader frameHeader = new FrameHeader();
         FrameAddress frameAddress = new FrameAddress();
         ProtocolHeader protocolHeader = new ProtocolHeader();
 
         // Set the headers up
+        //  The sequence number is allocated per target by the transport when the packet is sent
         protocolHeader.setType(message.getType());
-        frameAddress.setSequence(getNextPacketSequenceNumber());
 
         // Is this a broadcast?
         if (message.isBroadcast()) {
@@ -363,8 +723,9 @@ public class PacketHandler {
             frameAddress.setTarget(device.getMacAddress());
         }
 
-        // Set if we need a result returned, usually true
-        frameAddress.setRes_required(resultRequired);
+        // Set if we need a result returned (usually true), or just an acknowledgement
+        frameAddress.setRes_required(deliveryMode == DeliveryMode.RESPONSE);
+        frameAddress.setAck_required(deliveryMode == DeliveryMode.ACKNOWLEDGEMENT);
 
         return new Packet(frameHeader, frameAddress, protocolHeader, message);
     }
@@ -372,44 +733,23 @@ public class PacketHandler {
     /**
      * Builds a LIFX Message
      *
-     * @param messageType  the type of message (packet ID)
-     * @param messageBytes the payload data of the message
+     * @param messageType the type of message (packet ID)
+     * @param buffer      the buffer holding the payload data of the message
+     * @param offset      the offset of the payload within the buffer
+     * @param length      the length of the payload
      *
-     * @return the constructed message (or null)
+     * @return the constructed message (or null if the message type is unknown)
      */
-    private static Message buildMessage(int messageType, byte[] messageBytes) {
-        Class<? extends Message> messageClazz = responseMessagesMap.get(messageType);
-
+    private static Message buildMessage(int messageType, ByteBuffer buffer, int offset, int length) {
         // Sanity check
-        if (messageClazz == null) {
+        if (!isKnownMessageType(messageType)) {
             return null;
         }
 
-        // And now, reflection
-        try {
-            Message message = messageClazz.newInstance();
-            message.decodeBytes(messageBytes);
-
-            return message;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return null;
-    }
-
-    /**
-     * Increment the packet sequence in a 0-255 loop.
-     *
-     * @return short the next packet sequence number
-     */
-    private static short getNextPacketSequenceNumber() {
-        ++sequence;
-
-        if (sequence > 255) {
-            sequence = 0;
-        }
+        // Decoding errors are reported by buildPacket, which knows the sender
+        Message message = responseMessages[messageType].get();
+        message.decodeFrom(buffer, offset, length);
 
-        return sequence;
+        return message;
     }
 }
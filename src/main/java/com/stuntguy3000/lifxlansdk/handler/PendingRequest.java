@@ -0,0 +1,239 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Represents a request that has been sent and is awaiting replies from one or more devices
+ * <p>
+ * Replies are offered by the {@link Transport} receive thread, and collected until either enough replies have been
+ * received or the owner of the request gives up waiting.
+ */
+@Getter
+class PendingRequest {
+    /**
+     * The message types of GetService and its reply, StateService
+     */
+    private static final int GET_SERVICE_TYPE = 2;
+    private static final int STATE_SERVICE_TYPE = 3;
+
+    /**
+     * The packet that was sent
+     */
+    private final Packet packet;
+    /**
+     * The in-flight table key of this request, see {@link Transport#key(long, short)}
+     */
+    private final long key;
+    /**
+     * The amount of unique replies to receive before completing, or zero to collect replies until the owner gives up
+     */
+    private final int maxReceiveMessageCount;
+    /**
+     * Completed with the received replies once maxReceiveMessageCount unique replies have been received
+     */
+    private final CompletableFuture<List<Packet>> future = new CompletableFuture<>();
+
+    private final List<Packet> replies = new ArrayList<>();
+    /**
+     * The newer request which superseded this one, see {@link #supersede(PendingRequest)}
+     */
+    private volatile PendingRequest supersededBy = null;
+    /**
+     * The amount of times the packet has been written
+     */
+    @Getter(AccessLevel.NONE)
+    private int transmissions = 0;
+    @Getter(AccessLevel.NONE)
+    private long firstWrittenNanos;
+    @Getter(AccessLevel.NONE)
+    private long lastWrittenNanos;
+    @Getter(AccessLevel.NONE)
+    private boolean rttSampled = false;
+    /**
+     * Notified of each unique reply as it is received, can be null
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private volatile Consumer<Packet> replyListener = null;
+
+    PendingRequest(Packet packet, long key, int maxReceiveMessageCount) {
+        this.packet = packet;
+        this.key = key;
+        this.maxReceiveMessageCount = maxReceiveMessageCount;
+    }
+
+    /**
+     * Offer a received packet to this request
+     *
+     * @param receivedPacket the received packet
+     * @param onAccepted     run if the packet is accepted, before the request can complete
+     *
+     * @return true if the packet was accepted, false if it duplicates an earlier reply or the request is complete
+     */
+    boolean offer(Packet receivedPacket, Runnable onAccepted) {
+        List<Packet> completedReplies = null;
+
+        synchronized (this) {
+            if (future.isDone() || !isUnique(receivedPacket)) {
+                return false;
+            }
+
+            replies.add(receivedPacket);
+
+            // Have we received enough packets?
+            if (replies.size() == maxReceiveMessageCount) {
+                completedReplies = new ArrayList<>(replies);
+            }
+        }
+
+        // Notify and complete outside the lock, dependants may run on this thread
+        onAccepted.run();
+
+        if (replyListener != null) {
+            replyListener.accept(receivedPacket);
+        }
+
+        if (completedReplies != null) {
+            future.complete(completedReplies);
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if a received message type can be a reply to this request
+     * <p>
+     * Broadcasts and targeted requests draw sequence numbers from separate counters, so a reply to a discovery
+     * broadcast can share its (device, sequence) with a targeted request to the same device. A StateService is only
+     * ever a reply to a GetService, which is enough to tell the two apart.
+     *
+     * @param messageType the type of the received message (packet ID)
+     *
+     * @return true if the message type can be a reply to this request
+     */
+    boolean accepts(int messageType) {
+        return (messageType == STATE_SERVICE_TYPE) == (packet.getProtocolHeader().getType() == GET_SERVICE_TYPE);
+    }
+
+    /**
+     * Record that the packet is being written
+     */
+    synchronized void markWritten() {
+        transmissions++;
+        lastWrittenNanos = System.nanoTime();
+
+        if (transmissions == 1) {
+            firstWrittenNanos = lastWrittenNanos;
+        }
+    }
+
+    /**
+     * @return when the packet was first written (in ns, see {@link System#nanoTime()})
+     */
+    synchronized long getFirstWrittenNanos() {
+        return firstWrittenNanos;
+    }
+
+    /**
+     * @return the amount of times the packet has been written
+     */
+    synchronized int getTransmissions() {
+        return transmissions;
+    }
+
+    /**
+     * Take a round trip time sample for a received reply
+     * <p>
+     * Only the first reply is sampled, and only if the packet was written once (Karn's algorithm).
+     *
+     * @param receivedNanos when the reply was received
+     *
+     * @return the round trip time (in ns), or -1 if no sample should be taken
+     */
+    synchronized long takeRttSample(long receivedNanos) {
+        if (rttSampled || transmissions != 1) {
+            rttSampled = true;
+            return -1;
+        }
+
+        rttSampled = true;
+        return receivedNanos - lastWrittenNanos;
+    }
+
+    /**
+     * Mark this request as superseded by a newer request with the same effect
+     * <p>
+     * A superseded request is no longer retransmitted, and is completed along with the newer request.
+     *
+     * @param newer the newer request
+     */
+    void supersede(PendingRequest newer) {
+        supersededBy = newer;
+
+        newer.getFuture().whenComplete((newerReplies, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                future.complete(newerReplies);
+            }
+        });
+    }
+
+    /**
+     * @return a snapshot of the unique replies received so far
+     */
+    synchronized List<Packet> getReplies() {
+        return new ArrayList<>(replies);
+    }
+
+    /**
+     * Is the received packet unique?
+     * <p>
+     * Packet delivery assurance techniques can mean duplicates can happen, but some API calls return multiple packets
+     * per request, so, we try to accommodate that whilst comparing payload information.
+     * <p>
+     * Every packet offered here already carries this request's sequence number, so a duplicate is a reply from the
+     * same device, of the same type, with the same payload.
+     *
+     * @param receivedPacket the received packet
+     *
+     * @return true if the packet is not a duplicate of a previously received reply
+     */
+    private boolean isUnique(Packet receivedPacket) {
+        for (Packet returnedPacket : replies) {
+            if (receivedPacket.getIpAddress().equals(returnedPacket.getIpAddress())) {
+                if (receivedPacket.getProtocolHeader().getType() == returnedPacket.getProtocolHeader().getType()) {
+                    byte[] receivedPacketMessageBytes = receivedPacket.getMessage().toBytes();
+                    byte[] returnedPacketMessageBytes = returnedPacket.getMessage().toBytes();
+
+                    // Only some packets are cared about, those have defined toBytes, if not, they will be zero and can be ignored
+                    if (receivedPacketMessageBytes.length > 0 && returnedPacketMessageBytes.length > 0) {
+                        if (Arrays.equals(receivedPacketMessageBytes, returnedPacketMessageBytes)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Completes a broadcast request once no new device has replied to it for a quiet window, or once an expected amount of
+ * devices have replied
+ * <p>
+ * The quiet window is extended each time the request is written, and each time a device replies for the first time.
+ */
+class QuietWindowCollector implements Consumer<Packet> {
+    private final PendingRequest pendingRequest;
+    private final ScheduledExecutorService scheduler;
+    private final long quietWindowNanos;
+    private final int expectedDevices;
+    /**
+     * The packed MAC addresses of the devices which have replied
+     */
+    private final Set<Long> devices = ConcurrentHashMap.newKeySet();
+    private long quietUntilNanos;
+
+    QuietWindowCollector(PendingRequest pendingRequest, ScheduledExecutorService scheduler, long quietWindowNanos, int expectedDevices) {
+        this.pendingRequest = pendingRequest;
+        this.scheduler = scheduler;
+        this.quietWindowNanos = quietWindowNanos;
+        this.expectedDevices = expectedDevices;
+    }
+
+    /**
+     * Start the quiet window
+     */
+    void start() {
+        synchronized (this) {
+            quietUntilNanos = System.nanoTime() + quietWindowNanos;
+        }
+
+        scheduler.schedule(this::check, quietWindowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Restart the quiet window from now, unless it already ends later
+     */
+    synchronized void extend() {
+        long untilNanos = System.nanoTime() + quietWindowNanos;
+
+        // Compare by difference, as System.nanoTime() may be negative or overflow
+        if (untilNanos - quietUntilNanos > 0) {
+            quietUntilNanos = untilNanos;
+        }
+    }
+
+    @Override
+    public void accept(Packet packet) {
+        if (!devices.add(TypeUtil.macAddressToLong(packet.getFrameAddress().getTarget()))) {
+            return;
+        }
+
+        if (expectedDevices > 0 && devices.size() >= expectedDevices) {
+            pendingRequest.getFuture().complete(pendingRequest.getReplies());
+        } else {
+            extend();
+        }
+    }
+
+    /**
+     * Complete the request if the quiet window has passed, otherwise check again when it ends
+     */
+    private void check() {
+        if (pendingRequest.getFuture().isDone()) {
+            return;
+        }
+
+        long remainingNanos;
+        synchronized (this) {
+            remainingNanos = quietUntilNanos - System.nanoTime();
+        }
+
+        if (remainingNanos <= 0) {
+            pendingRequest.getFuture().complete(pendingRequest.getReplies());
+        } else {
+            scheduler.schedule(this::check, remainingNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
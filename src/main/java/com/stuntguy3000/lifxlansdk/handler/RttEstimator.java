@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates the round trip time to each target, to choose how long to wait before retransmitting a request
+ * <p>
+ * Follows the TCP retransmission timer (RFC 6298): a smoothed round trip time and its variance are kept per target,
+ * and the timeout is the smoothed round trip time plus four variances. Only replies to requests which were transmitted
+ * once are sampled (Karn's algorithm), as a reply to a retransmitted request could belong to any of its transmissions.
+ */
+class RttEstimator {
+    /**
+     * The lowest timeout used, so a few fast replies do not cause retransmissions on the slightest delay
+     */
+    static final long MIN_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final ConcurrentHashMap<Long, Estimate> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * Record a measured round trip time
+     *
+     * @param target   the packed target MAC address
+     * @param rttNanos the measured round trip time (in ns)
+     */
+    void sample(long target, long rttNanos) {
+        estimates.computeIfAbsent(target, key -> new Estimate()).sample(rttNanos);
+    }
+
+    /**
+     * Calculate how long to wait for a reply before retransmitting
+     * <p>
+     * Targets without any samples wait the initial timeout. Otherwise the timeout follows the measured round trip time,
+     * which can take it above the initial timeout for slow or erratic devices. Each retransmission doubles the timeout
+     * (exponential backoff), and it never exceeds the maximum (or the initial timeout, if that is greater).
+     *
+     * @param target              the packed target MAC address
+     * @param initialTimeoutNanos the timeout used until the round trip time has been measured (in ns)
+     * @param maxTimeoutNanos     the maximum timeout (in ns)
+     * @param transmissions       the amount of times the request has been transmitted so far
+     *
+     * @return the timeout (in ns)
+     */
+    long timeoutNanos(long target, long initialTimeoutNanos, long maxTimeoutNanos, int transmissions) {
+        Estimate estimate = estimates.get(target);
+        if (estimate == null) {
+            return initialTimeoutNanos;
+        }
+
+        long limitNanos = Math.max(initialTimeoutNanos, maxTimeoutNanos);
+        long timeoutNanos = Math.max(MIN_TIMEOUT_NANOS, estimate.timeoutNanos());
+
+        for (int i = 1; i < transmissions && timeoutNanos < limitNanos; i++) {
+            timeoutNanos *= 2;
+        }
+
+        return Math.min(timeoutNanos, limitNanos);
+    }
+
+    /**
+     * The smoothed round trip time to a target
+     *
+     * @param target the packed target MAC address
+     *
+     * @return the smoothed round trip time (in ns), or -1 if there are no samples
+     */
+    long smoothedRttNanos(long target) {
+        Estimate estimate = estimates.get(target);
+        return estimate == null ? -1 : estimate.smoothedRttNanos();
+    }
+
+    private static class Estimate {
+        private double smoothedRtt = -1;
+        private double rttVariance;
+
+        synchronized void sample(long rttNanos) {
+            if (smoothedRtt < 0) {
+                smoothedRtt = rttNanos;
+                rttVariance = rttNanos / 2.0;
+            } else {
+                rttVariance = 0.75 * rttVariance + 0.25 * Math.abs(smoothedRtt - rttNanos);
+                smoothedRtt = 0.875 * smoothedRtt + 0.125 * rttNanos;
+            }
+        }
+
+        synchronized long timeoutNanos() {
+            return (long) (smoothedRtt + 4 * rttVariance);
+        }
+
+        synchronized long smoothedRttNanos() {
+            return (long) smoothedRtt;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocates packet sequence numbers per target device
+ * <p>
+ * LIFX recommends one source value per client, with sequence incrementing per device for each message sent and wrapping
+ * from 255 back to 0. Counters are atomic, so any thread may allocate without locking.
+ */
+class SequenceAllocator {
+    /**
+     * Sequence counters, keyed by target MAC address (see {@link com.stuntguy3000.lifxlansdk.util.TypeUtil#macAddressToLong(String)})
+     */
+    private final ConcurrentHashMap<Long, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * Allocate the next sequence number for a target, in a 0-255 loop
+     *
+     * @param target the packed target MAC address (zero for broadcasts)
+     *
+     * @return the next sequence number
+     */
+    short next(long target) {
+        AtomicInteger sequence = sequences.computeIfAbsent(target, key -> new AtomicInteger());
+
+        return (short) (sequence.getAndIncrement() & 0xff);
+    }
+}
@@ -0,0 +1,620 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import com.stuntguy3000.lifxlansdk.event.EventType;
+import com.stuntguy3000.lifxlansdk.event.Events;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A long-lived UDP transport used to communicate with LIFX devices
+ * <p>
+ * A single bound {@link DatagramChannel} is used for all sent packets, and a single receive thread routes every reply
+ * to the request awaiting it by (source, sequence, target MAC). This avoids opening a socket per request, and lets
+ * many requests to many devices be in flight at once.
+ */
+public class Transport implements Closeable {
+    /**
+     * A reusable send buffer per sending thread, so encoding and writing a packet allocates nothing
+     */
+    private static final ThreadLocal<ByteBuffer> SEND_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(Packet.MAX_PACKET_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+    /**
+     * True on the receive and scheduler threads of every transport, which complete request futures (and so run their
+     * dependent actions)
+     */
+    private static final ThreadLocal<Boolean> TRANSPORT_THREAD = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Requests awaiting replies, keyed by (target, sequence), see {@link #key(long, short)}
+     */
+    private final ConcurrentHashMap<Long, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+    private final SequenceAllocator sequenceAllocator = new SequenceAllocator();
+    private final RttEstimator rttEstimator = new RttEstimator();
+    /**
+     * Packets waiting to be written, queued per packed target MAC address (zero for broadcasts)
+     */
+    private final ConcurrentHashMap<Long, OutboundQueue> outboundQueues = new ConcurrentHashMap<>();
+    private final DatagramChannel channel;
+    /**
+     * Schedules retransmissions of requests which have not yet been answered, and paced writes
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            TRANSPORT_THREAD.set(true);
+            runnable.run();
+        }, "LIFX-Transport-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * The source identifier placed into every packet sent by this transport
+     * <p>
+     * Chosen at random so that replies meant for other clients (or other transports in this JVM) on the same network
+     * can be discarded before they are decoded. Values 0 and 1 are avoided, as devices may broadcast replies to them.
+     */
+    @Getter
+    private final int source = randomSource();
+    /**
+     * The maximum rate packets are written to each target (in messages per second), zero or less to disable pacing
+     * <p>
+     * LIFX recommends sending no more than 20 messages per second to a device.
+     */
+    @Getter
+    @Setter
+    private volatile double rateLimit = 20;
+    /**
+     * The amount of packets which can be written to a target back-to-back before pacing applies
+     */
+    @Getter
+    @Setter
+    private volatile int rateLimitBurst = 5;
+    /**
+     * The longest wait before retransmitting a targeted request (in ms), once the wait adapts to the measured round trip
+     * time
+     * <p>
+     * This can be greater than a request's timeout, so devices with a weak signal are given longer to reply rather
+     * than being retransmitted to (and given up on) too early. A request still never waits longer than its timeout ×
+     * retry in total.
+     */
+    @Getter
+    @Setter
+    private volatile int maxRetransmissionTimeout = 2000;
+    /**
+     * The amount of packets written again because they were not answered in time
+     */
+    private final LongAdder retransmissionCount = new LongAdder();
+    /**
+     * The correlation id of the last request, see {@link Packet#getCorrelationId()}
+     */
+    private final AtomicLong lastCorrelationId = new AtomicLong();
+    /**
+     * Where metrics about sent and received packets are reported, see {@link TransportStatistics}
+     */
+    @Getter
+    @Setter
+    @NonNull
+    private volatile TransportMetrics metrics = TransportMetrics.NONE;
+
+    /**
+     * Construct a new Transport, bound to an ephemeral local port
+     *
+     * @throws IOException if the channel could not be opened
+     */
+    public Transport() throws IOException {
+        channel = DatagramChannel.open();
+        channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+        channel.bind(new InetSocketAddress(0));
+
+        Thread receiveThread = new Thread(this::receiveLoop, "LIFX-Transport-Receiver");
+        receiveThread.setDaemon(true);
+        receiveThread.start();
+    }
+
+    /**
+     * Pick a random source identifier
+     *
+     * @return a source identifier greater than 1 (when treated as unsigned)
+     */
+    private static int randomSource() {
+        int source;
+
+        do {
+            source = ThreadLocalRandom.current().nextInt();
+        } while (source == 0 || source == 1);
+
+        return source;
+    }
+
+    /**
+     * The local port this transport sends from, and so receives replies on
+     *
+     * @return the local port
+     */
+    public int getLocalPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Builds the in-flight table key for a target and sequence number
+     *
+     * @param target   the packed target MAC address (zero for broadcasts)
+     * @param sequence the packet sequence number
+     *
+     * @return the key
+     */
+    static long key(long target, short sequence) {
+        return (target << 8) | (sequence & 0xff);
+    }
+
+    /**
+     * Send a packet without awaiting any replies
+     * <p>
+     * The packet is assigned the next sequence number for its target, and written once the rate limit allows.
+     *
+     * @param packet  the packet to send
+     * @param address the address to send it to
+     * @param port    the port to send it to
+     */
+    public void send(Packet packet, InetAddress address, int port) {
+        long target = TypeUtil.macAddressToLong(packet.getFrameAddress().getTarget());
+        packet.getFrameHeader().setSource(source);
+        packet.getFrameAddress().setSequence(sequenceAllocator.next(target));
+        packet.setCorrelationId(lastCorrelationId.incrementAndGet());
+
+        enqueue(target, new OutboundQueue.Entry(packet, address, port, null, null));
+    }
+
+    /**
+     * Send a packet and collect its replies, with no overall deadline
+     * <p>
+     * See {@link #request(Packet, InetAddress, int, int, int, int, Duration)}.
+     *
+     * @param packet                 the packet to send
+     * @param address                the address to send it to
+     * @param port                   the port to send it to
+     * @param maxReceiveMessageCount the amount of replies to receive before completing (zero to wait for all attempts)
+     * @param timeout                the maximum wait time for replies per attempt (in ms)
+     * @param retry                  the amount of attempts to make
+     *
+     * @return a future completed with the received replies (can be empty)
+     */
+    public CompletableFuture<List<Packet>> request(Packet packet, InetAddress address, int port, int maxReceiveMessageCount, int timeout, int retry) {
+        return request(packet, address, port, maxReceiveMessageCount, timeout, retry, null);
+    }
+
+    /**
+     * Send a packet and collect its replies
+     * <p>
+     * The packet is assigned the next free sequence number for its target, and retransmitted with that same sequence
+     * number until enough replies have been received or all attempts are used. Each timeout starts once the packet has
+     * actually been written, so time spent queued behind the rate limit does not count against it.
+     * <p>
+     * For targeted packets, the wait before each retransmission adapts to the round trip time measured to the target
+     * (see {@link RttEstimator}), doubling with each retransmission, and never exceeding {@link
+     * #getMaxRetransmissionTimeout()}. However the waits are spread, a targeted request never waits longer than timeout
+     * × retry in total after it is first written. Broadcasts always wait the full timeout, as that is the window in
+     * which replies from every device are collected.
+     * <p>
+     * Cancelling the returned future stops the request: it is no longer retransmitted, and if it is still queued behind
+     * the rate limit it is never written.
+     * <p>
+     * If the packet's message is {@link com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable} and a newer
+     * request supersedes it before it is answered, the returned future is completed with the newer request's replies.
+     * The returned future is completed by the receive thread (or the scheduler), and never blocks the caller.
+     *
+     * @param packet                 the packet to send
+     * @param address                the address to send it to
+     * @param port                   the port to send it to
+     * @param maxReceiveMessageCount the amount of replies to receive before completing (zero to wait for all attempts)
+     * @param timeout                the wait time for replies per attempt (in ms), used until the round trip time to
+     *                               the target has been measured
+     * @param retry                  the amount of attempts to make
+     * @param deadline               the overall time budget, after which the future is completed with whatever replies
+     *                               have been received (null for no deadline)
+     *
+     * @return a future completed with the received replies (can be empty)
+     */
+    public CompletableFuture<List<Packet>> request(Packet packet, InetAddress address, int port, int maxReceiveMessageCount, int timeout, int retry, Duration deadline) {
+        // Replies are routed by the receive thread, so register before sending
+        PendingRequest pendingRequest = register(packet, maxReceiveMessageCount);
+        CompletableFuture<List<Packet>> future = pendingRequest.getFuture();
+        long startNanos = System.nanoTime();
+
+        future.whenComplete((packets, throwable) -> {
+            unregister(pendingRequest);
+            recordOutcome(pendingRequest, packets, System.nanoTime() - startNanos);
+        });
+        expireAfter(pendingRequest, deadline);
+
+        attempt(pendingRequest, address, port, timeout, retry, TimeUnit.MILLISECONDS.toNanos((long) timeout * retry));
+
+        return future;
+    }
+
+    /**
+     * Broadcast a packet and collect replies until devices stop replying
+     * <p>
+     * The packet is sent in a burst of identical copies (one sequence number, so replies to every copy are routed
+     * here), and replies are collected until no new device has replied for the quiet window, the expected amount of
+     * devices have replied, or the deadline passes, whichever comes first.
+     *
+     * @param packet          the packet to send
+     * @param address         the address to send it to
+     * @param port            the port to send it to
+     * @param bursts          the amount of copies to send
+     * @param burstInterval   the time between each copy
+     * @param quietWindow     how long to wait for a new device to reply before completing
+     * @param expectedDevices the amount of devices to receive replies from before completing early (zero if unknown)
+     * @param deadline        the overall time budget (null for no deadline)
+     *
+     * @return a future completed with the received replies (can be empty)
+     */
+    public CompletableFuture<List<Packet>> discover(Packet packet, InetAddress address, int port, int bursts, Duration burstInterval, Duration quietWindow, int expectedDevices, Duration deadline) {
+        PendingRequest pendingRequest = register(packet, 0);
+        CompletableFuture<List<Packet>> future = pendingRequest.getFuture();
+        QuietWindowCollector collector = new QuietWindowCollector(pendingRequest, scheduler, quietWindow.toNanos(), expectedDevices);
+
+        pendingRequest.setReplyListener(collector);
+        future.whenComplete((packets, throwable) -> unregister(pendingRequest));
+        expireAfter(pendingRequest, deadline);
+
+        long target = TypeUtil.macAddressToLong(packet.getFrameAddress().getTarget());
+        OutboundQueue.Entry entry = new OutboundQueue.Entry(packet, address, port, pendingRequest, collector::extend);
+
+        collector.start();
+        enqueue(target, entry);
+
+        for (int burst = 1; burst < bursts; burst++) {
+            scheduler.schedule(() -> enqueue(target, entry), burstInterval.toNanos() * burst, TimeUnit.NANOSECONDS);
+        }
+
+        return future;
+    }
+
+    /**
+     * Report whether a completed request was answered (and how long it took) to the metrics and event listeners
+     *
+     * @param pendingRequest the completed request
+     * @param packets        the replies it completed with (null if it was cancelled or failed)
+     * @param latencyNanos   the time from the request being made until it completed
+     */
+    private void recordOutcome(PendingRequest pendingRequest, List<Packet> packets, long latencyNanos) {
+        TransportMetrics metrics = this.metrics;
+        if (packets == null || (metrics == TransportMetrics.NONE && !Events.isEnabled())) {
+            return;
+        }
+
+        long target = pendingRequest.getKey() >>> 8;
+        int messageType = pendingRequest.getPacket().getProtocolHeader().getType();
+
+        if (packets.isEmpty()) {
+            report(reporter -> reporter.requestTimedOut(target, messageType));
+            Events.packet(EventType.TIMEOUT, pendingRequest.getPacket().getCorrelationId(), target, messageType, pendingRequest.getTransmissions());
+        } else {
+            report(reporter -> reporter.requestAnswered(target, messageType, latencyNanos));
+        }
+    }
+
+    /**
+     * Complete a pending request with the replies received so far once its deadline passes
+     *
+     * @param pendingRequest the pending request
+     * @param deadline       the deadline, can be null for no deadline
+     */
+    private void expireAfter(PendingRequest pendingRequest, Duration deadline) {
+        if (deadline == null) {
+            return;
+        }
+
+        CompletableFuture<List<Packet>> future = pendingRequest.getFuture();
+        ScheduledFuture<?> expiry = scheduler.schedule(() -> future.complete(pendingRequest.getReplies()), deadline.toNanos(), TimeUnit.NANOSECONDS);
+
+        future.whenComplete((packets, throwable) -> expiry.cancel(false));
+    }
+
+    /**
+     * Send a pending request, and schedule a retransmission (or completion) if it is not answered in time, waiting no
+     * longer than budgetNanos in total from when it is first written
+     */
+    private void attempt(PendingRequest pendingRequest, InetAddress address, int port, int timeout, int retry, long budgetNanos) {
+        if (pendingRequest.getFuture().isDone() || pendingRequest.getSupersededBy() != null) {
+            return;
+        }
+
+        if (retry <= 0) {
+            // Out of retries, return whatever we have
+            pendingRequest.getFuture().complete(pendingRequest.getReplies());
+            return;
+        }
+
+        long target = TypeUtil.macAddressToLong(pendingRequest.getPacket().getFrameAddress().getTarget());
+
+        enqueue(target, new OutboundQueue.Entry(pendingRequest.getPacket(), address, port, pendingRequest, () -> {
+            if (pendingRequest.getTransmissions() > 1) {
+                retransmissionCount.increment();
+            }
+
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            int nextRetry = retry - 1;
+
+            if (target != 0) {
+                timeoutNanos = rttEstimator.timeoutNanos(target, timeoutNanos, TimeUnit.MILLISECONDS.toNanos(maxRetransmissionTimeout), pendingRequest.getTransmissions());
+
+                // The backoff never stretches the request beyond the timeout × retry the caller allowed
+                long remainingNanos = Math.max(0, pendingRequest.getFirstWrittenNanos() + budgetNanos - System.nanoTime());
+                if (timeoutNanos >= remainingNanos) {
+                    timeoutNanos = remainingNanos;
+                    nextRetry = 0;
+                }
+            }
+
+            int scheduledRetry = nextRetry;
+            scheduler.schedule(() -> attempt(pendingRequest, address, port, timeout, scheduledRetry, budgetNanos), timeoutNanos, TimeUnit.NANOSECONDS);
+        }));
+    }
+
+    /**
+     * Whether the current thread is the receive or scheduler thread of a transport
+     * <p>
+     * These threads route replies and schedule retransmissions, so waiting on them for a reply never ends.
+     *
+     * @return true if the current thread must not block waiting for a reply
+     */
+    public static boolean isTransportThread() {
+        return TRANSPORT_THREAD.get();
+    }
+
+    /**
+     * Fail fast rather than block a transport thread waiting for a reply, which would deadlock the transport
+     *
+     * @throws IllegalStateException if called from a transport thread
+     */
+    public static void requireNotTransportThread() {
+        if (isTransportThread()) {
+            throw new IllegalStateException("Cannot wait for a reply on a transport thread, use the asynchronous methods instead");
+        }
+    }
+
+    /**
+     * The smoothed round trip time measured to a device
+     *
+     * @param macAddress the MAC address of the device
+     *
+     * @return the smoothed round trip time (in ns), or -1 if it has not been measured
+     */
+    public long getSmoothedRttNanos(String macAddress) {
+        return rttEstimator.smoothedRttNanos(TypeUtil.macAddressToLong(macAddress));
+    }
+
+    /**
+     * The amount of packets written again because they were not answered in time, since this transport was created
+     *
+     * @return the amount of retransmissions
+     */
+    public long getRetransmissionCount() {
+        return retransmissionCount.sum();
+    }
+
+    /**
+     * Queue a packet to be written to its target
+     *
+     * @param target the packed target MAC address (zero for broadcasts)
+     * @param entry  the packet to write
+     */
+    private void enqueue(long target, OutboundQueue.Entry entry) {
+        int queueDepth = outboundQueues.computeIfAbsent(target, key -> new OutboundQueue(this, key)).add(entry);
+
+        if (queueDepth > 0) {
+            report(reporter -> reporter.packetQueued(target, queueDepth));
+        }
+    }
+
+    /**
+     * Register a packet as awaiting replies, assigning it a sequence number that is not already in flight
+     * <p>
+     * Must be called before the packet is first sent, so no replies are missed. If all 256 sequence numbers for a
+     * target are in flight, the oldest request sharing the allocated sequence number is displaced.
+     *
+     * @param packet                 the packet which will be sent
+     * @param maxReceiveMessageCount the amount of replies to receive before completing (zero for unlimited)
+     *
+     * @return the pending request
+     */
+    private PendingRequest register(Packet packet, int maxReceiveMessageCount) {
+        long target = TypeUtil.macAddressToLong(packet.getFrameAddress().getTarget());
+        packet.getFrameHeader().setSource(source);
+        packet.setCorrelationId(lastCorrelationId.incrementAndGet());
+
+        for (int attempt = 0; ; attempt++) {
+            short sequence = sequenceAllocator.next(target);
+            PendingRequest pendingRequest = new PendingRequest(packet, key(target, sequence), maxReceiveMessageCount);
+
+            packet.getFrameAddress().setSequence(sequence);
+
+            if (attempt >= 256) {
+                pendingRequests.put(pendingRequest.getKey(), pendingRequest);
+                return pendingRequest;
+            }
+
+            if (pendingRequests.putIfAbsent(pendingRequest.getKey(), pendingRequest) == null) {
+                return pendingRequest;
+            }
+        }
+    }
+
+    /**
+     * Stop routing replies to a pending request
+     *
+     * @param pendingRequest the pending request
+     */
+    private void unregister(PendingRequest pendingRequest) {
+        pendingRequests.remove(pendingRequest.getKey(), pendingRequest);
+    }
+
+    /**
+     * Write a packet to the channel
+     *
+     * @param packet  the packet to write
+     * @param address the address to send it to
+     * @param port    the port to send it to
+     */
+    void write(Packet packet, InetAddress address, int port) {
+        try {
+            ByteBuffer sendBuffer = SEND_BUFFER.get();
+            sendBuffer.clear();
+
+            packet.encodeInto(sendBuffer);
+            sendBuffer.flip();
+
+            channel.send(sendBuffer, new InetSocketAddress(address, port));
+        } catch (IOException exception) {
+            report(reporter -> reporter.sendFailed(TypeUtil.macAddressToLong(packet.getFrameAddress().getTarget()), packet.getProtocolHeader().getType()));
+            Events.error("Failed to send packet to " + address.getHostAddress() + ":" + port, exception);
+        }
+    }
+
+    /**
+     * Receives packets until the channel is closed, routing each to the request awaiting it
+     */
+    private void receiveLoop() {
+        TRANSPORT_THREAD.set(true);
+        ByteBuffer receiveBuffer = ByteBuffer.allocate(Packet.MAX_PACKET_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (channel.isOpen()) {
+            try {
+                receiveBuffer.clear();
+                InetSocketAddress senderAddress = (InetSocketAddress) channel.receive(receiveBuffer);
+                receiveBuffer.flip();
+
+                // Is it ours? Check the header before decoding anything
+                //  Bytes 0 - 1 of the Frame Header hold the size, bytes 4 - 7 the source identifier
+                int size = receiveBuffer.remaining();
+                if (size < Packet.HEADER_SIZE || (receiveBuffer.getShort(0) & 0xffff) > size || receiveBuffer.getInt(4) != source) {
+                    continue;
+                }
+
+                // Is anyone waiting for it?
+                //  Replies to targeted requests are keyed by the device's MAC, replies to broadcasts by the zero target
+                //  Bytes 8 - 13 of the Frame Address hold the target, byte 23 holds the sequence, and bytes 32 - 33 of
+                //  the Protocol Header hold the message type
+                short sequence = (short) (receiveBuffer.get(23) & 0xff);
+                long sender = TypeUtil.bufferToMacAddressLong(receiveBuffer, 8);
+                int messageType = receiveBuffer.getShort(32) & 0xffff;
+                PendingRequest pendingRequest = pendingRequests.get(key(sender, sequence));
+
+                if (pendingRequest == null || !pendingRequest.accepts(messageType)) {
+                    pendingRequest = pendingRequests.get(key(0, sequence));
+                }
+
+                if (pendingRequest == null || !pendingRequest.accepts(messageType) || !PacketHandler.isKnownMessageType(messageType)) {
+                    report(reporter -> reporter.packetDiscarded(sender, messageType));
+                    continue;
+                }
+
+                // Process Result
+                Packet receivedPacket = PacketHandler.buildPacket(receiveBuffer);
+
+                // Does it have a payload?
+                if (receivedPacket == null || receivedPacket.getMessage() == null) {
+                    report(reporter -> reporter.decodeFailed(sender, messageType));
+                    continue;
+                }
+
+                receivedPacket.setIpAddress(senderAddress.getAddress());
+                receivedPacket.setCorrelationId(pendingRequest.getPacket().getCorrelationId());
+
+                // Measure the round trip time to targeted devices
+                long target = pendingRequest.getKey() >>> 8;
+                long rttNanos = pendingRequest.takeRttSample(System.nanoTime());
+                if (target != 0 && rttNanos >= 0) {
+                    rttEstimator.sample(target, rttNanos);
+                }
+
+                // Reported before the request can complete, so whoever awaits it sees the reply reported
+                if (pendingRequest.offer(receivedPacket, () -> {
+                    report(reporter -> reporter.packetReceived(sender, messageType));
+                    Events.packet(EventType.RECEIVE, receivedPacket.getCorrelationId(), sender, messageType, 0);
+                })) {
+                    continue;
+                }
+
+                if (pendingRequest.getFuture().isDone()) {
+                    report(reporter -> reporter.packetDiscarded(sender, messageType));
+                } else {
+                    report(reporter -> reporter.duplicateDiscarded(sender, messageType));
+                }
+            } catch (ClosedChannelException closedChannelException) {
+                return;
+            } catch (IOException exception) {
+                Events.error("Failed to receive packet", exception);
+            } catch (RuntimeException exception) {
+                // Never let one bad packet (or a broken listener) stop every future reply being received
+                Events.error("Failed to process packet", exception);
+            }
+        }
+    }
+
+    /**
+     * Report to the metrics, so a failing metrics implementation never breaks the transport thread reporting to it
+     *
+     * @param reporter reports to the metrics
+     */
+    void report(Consumer<TransportMetrics> reporter) {
+        try {
+            reporter.accept(metrics);
+        } catch (RuntimeException exception) {
+            Events.error("Transport metrics failed", exception);
+        }
+    }
+
+    /**
+     * Close this transport, releasing the underlying channel and receive thread
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            Events.error("Failed to close transport", exception);
+        }
+    }
+}
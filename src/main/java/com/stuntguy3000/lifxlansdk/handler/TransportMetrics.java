@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+/**
+ * Receives metrics from a {@link Transport}, see {@link Transport#setMetrics(TransportMetrics)}
+ * <p>
+ * Devices are identified by their packed MAC address (see {@link com.stuntguy3000.lifxlansdk.util.TypeUtil#macAddressToLong(String)}),
+ * zero for broadcasts. Every method defaults to doing nothing, so implementations only override what they need.
+ * <p>
+ * Methods are called on the thread which sent or received the packet (often the transport's receive thread or
+ * scheduler), so implementations must be thread-safe and must not block. See {@link TransportStatistics} for a ready
+ * made implementation.
+ */
+public interface TransportMetrics {
+    /**
+     * Metrics which are discarded, used when no metrics are set
+     */
+    TransportMetrics NONE = new TransportMetrics() {
+    };
+
+    /**
+     * A packet was written to the network
+     *
+     * @param target         the packed target MAC address
+     * @param messageType    the type of message sent
+     * @param retransmission true if the packet was written before, but not answered in time
+     */
+    default void packetSent(long target, int messageType, boolean retransmission) {
+    }
+
+    /**
+     * A packet could not be written to the network
+     *
+     * @param target      the packed target MAC address
+     * @param messageType the type of message
+     */
+    default void sendFailed(long target, int messageType) {
+    }
+
+    /**
+     * A packet was queued behind the rate limit
+     *
+     * @param target     the packed target MAC address
+     * @param queueDepth the amount of packets waiting to be written to the target, after this one was queued
+     */
+    default void packetQueued(long target, int queueDepth) {
+    }
+
+    /**
+     * A reply was received and handed to the request awaiting it
+     *
+     * @param target      the packed MAC address of the replying device
+     * @param messageType the type of message received
+     */
+    default void packetReceived(long target, int messageType) {
+    }
+
+    /**
+     * A reply was received which duplicates one already received, e.g. a reply to a retransmission
+     *
+     * @param target      the packed MAC address of the replying device
+     * @param messageType the type of message received
+     */
+    default void duplicateDiscarded(long target, int messageType) {
+    }
+
+    /**
+     * A reply was received which no request is awaiting, e.g. a reply arriving after its request gave up
+     *
+     * @param target      the packed MAC address of the replying device
+     * @param messageType the type of message received
+     */
+    default void packetDiscarded(long target, int messageType) {
+    }
+
+    /**
+     * A reply was received which could not be decoded
+     *
+     * @param target      the packed MAC address of the replying device
+     * @param messageType the type of message received
+     */
+    default void decodeFailed(long target, int messageType) {
+    }
+
+    /**
+     * A request received its replies
+     * <p>
+     * Request outcomes are reported as the request's future completes, so may be reported just after whoever awaits
+     * it has carried on.
+     *
+     * @param target      the packed target MAC address
+     * @param messageType the type of message requested
+     * @param latencyNanos the time from the request being made until it completed, including time queued
+     */
+    default void requestAnswered(long target, int messageType, long latencyNanos) {
+    }
+
+    /**
+     * A request used all of its attempts (or its deadline) without receiving a reply
+     *
+     * @param target      the packed target MAC address
+     * @param messageType the type of message requested
+     */
+    default void requestTimedOut(long target, int messageType) {
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.handler;
+
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TransportMetrics} which keeps counters and latency histograms in memory, in total, per device and per message
+ * type
+ * <p>
+ * Packet counters are kept against the type of the packet sent or received, request outcomes (latency and timeouts)
+ * against the type of the request. For example:
+ * <pre>
+ * TransportStatistics statistics = new TransportStatistics();
+ * PacketHandler.getTransport().setMetrics(statistics);
+ * ...
+ * statistics.getDevices().forEach((macAddress, device) -&gt; System.out.println(macAddress + " " + device));
+ * </pre>
+ */
+public class TransportStatistics implements TransportMetrics {
+    private final ConcurrentHashMap<Long, Statistics> devices = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Statistics> messageTypes = new ConcurrentHashMap<>();
+    private volatile Statistics total = new Statistics();
+
+    /**
+     * @return the statistics across all devices and message types
+     */
+    public Statistics getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the statistics of a device
+     *
+     * @param macAddress the MAC address of the device
+     *
+     * @return the statistics, or null if nothing has been sent to or received from the device
+     */
+    public Statistics getDevice(String macAddress) {
+        return devices.get(TypeUtil.macAddressToLong(macAddress));
+    }
+
+    /**
+     * @return the statistics of each device (and 00:00:00:00:00:00 for broadcasts), keyed by MAC address
+     */
+    public Map<String, Statistics> getDevices() {
+        Map<String, Statistics> result = new TreeMap<>();
+        devices.forEach((target, statistics) -> result.put(TypeUtil.longToMacAddress(target), statistics));
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Get the statistics of a message type
+     *
+     * @param messageType the message type
+     *
+     * @return the statistics, or null if no message of this type has been sent or received
+     */
+    public Statistics getMessageType(int messageType) {
+        return messageTypes.get(messageType);
+    }
+
+    /**
+     * @return the statistics of each message type, keyed by message type
+     */
+    public Map<Integer, Statistics> getMessageTypes() {
+        return Collections.unmodifiableMap(new TreeMap<>(messageTypes));
+    }
+
+    /**
+     * Discard all statistics
+     */
+    public void reset() {
+        devices.clear();
+        messageTypes.clear();
+        total = new Statistics();
+    }
+
+    private Statistics device(long target) {
+        return devices.computeIfAbsent(target, key -> new Statistics());
+    }
+
+    private Statistics messageType(int messageType) {
+        return messageTypes.computeIfAbsent(messageType, key -> new Statistics());
+    }
+
+    @Override
+    public void packetSent(long target, int messageType, boolean retransmission) {
+        total.sent.increment();
+        device(target).sent.increment();
+        messageType(messageType).sent.increment();
+
+        if (retransmission) {
+            total.retransmitted.increment();
+            device(target).retransmitted.increment();
+            messageType(messageType).retransmitted.increment();
+        }
+    }
+
+    @Override
+    public void sendFailed(long target, int messageType) {
+        total.sendFailures.increment();
+        device(target).sendFailures.increment();
+        messageType(messageType).sendFailures.increment();
+    }
+
+    @Override
+    public void packetQueued(long target, int queueDepth) {
+        total.maxQueueDepth.accumulate(queueDepth);
+        device(target).maxQueueDepth.accumulate(queueDepth);
+    }
+
+    @Override
+    public void packetReceived(long target, int messageType) {
+        total.received.increment();
+        device(target).received.increment();
+        messageType(messageType).received.increment();
+    }
+
+    @Override
+    public void duplicateDiscarded(long target, int messageType) {
+        total.duplicates.increment();
+        device(target).duplicates.increment();
+        messageType(messageType).duplicates.increment();
+    }
+
+    @Override
+    public void packetDiscarded(long target, int messageType) {
+        total.discarded.increment();
+        device(target).discarded.increment();
+        messageType(messageType).discarded.increment();
+    }
+
+    @Override
+    public void decodeFailed(long target, int messageType) {
+        total.decodeFailures.increment();
+        device(target).decodeFailures.increment();
+        messageType(messageType).decodeFailures.increment();
+    }
+
+    @Override
+    public void requestAnswered(long target, int messageType, long latencyNanos) {
+        total.latency.record(latencyNanos);
+        device(target).latency.record(latencyNanos);
+        messageType(messageType).latency.record(latencyNanos);
+    }
+
+    @Override
+    public void requestTimedOut(long target, int messageType) {
+        total.timeouts.increment();
+        device(target).timeouts.increment();
+        messageType(messageType).timeouts.increment();
+    }
+
+    /**
+     * The counters and request latencies of a device, message type, or the whole transport
+     */
+    public static class Statistics {
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder retransmitted = new LongAdder();
+        private final LongAdder sendFailures = new LongAdder();
+        private final LongAdder received = new LongAdder();
+        private final LongAdder duplicates = new LongAdder();
+        private final LongAdder discarded = new LongAdder();
+        private final LongAdder decodeFailures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+        /**
+         * The latency of answered requests
+         */
+        @Getter
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        /**
+         * @return the amount of packets written, including retransmissions
+         */
+        public long getSent() {
+            return sent.sum();
+        }
+
+        /**
+         * @return the amount of packets written again because they were not answered in time
+         */
+        public long getRetransmitted() {
+            return retransmitted.sum();
+        }
+
+        /**
+         * @return the amount of packets which could not be written
+         */
+        public long getSendFailures() {
+            return sendFailures.sum();
+        }
+
+        /**
+         * @return the amount of replies handed to the request awaiting them
+         */
+        public long getReceived() {
+            return received.sum();
+        }
+
+        /**
+         * @return the amount of replies discarded as duplicates of an earlier reply
+         */
+        public long getDuplicates() {
+            return duplicates.sum();
+        }
+
+        /**
+         * @return the amount of replies discarded because no request was awaiting them
+         */
+        public long getDiscarded() {
+            return discarded.sum();
+        }
+
+        /**
+         * @return the amount of replies which could not be decoded
+         */
+        public long getDecodeFailures() {
+            return decodeFailures.sum();
+        }
+
+        /**
+         * @return the amount of requests which received no reply
+         */
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        /**
+         * @return the most packets seen waiting behind the rate limit at once
+         */
+        public long getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sent=%d retransmitted=%d sendFailures=%d received=%d duplicates=%d discarded=%d decodeFailures=%d timeouts=%d maxQueueDepth=%d latency(p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms)",
+                    getSent(), getRetransmitted(), getSendFailures(), getReceived(), getDuplicates(), getDiscarded(), getDecodeFailures(), getTimeouts(), getMaxQueueDepth(),
+                    latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6, latency.getValueAtPercentile(99.9) / 1e6, latency.getMax() / 1e6);
+        }
+    }
+}
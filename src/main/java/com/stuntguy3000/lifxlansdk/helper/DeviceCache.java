@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.helper;
+
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateGroup;
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateLabel;
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateLocation;
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateVersion;
+import com.stuntguy3000.lifxlansdk.object.product.Device;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads and writes a compact binary snapshot of devices and their pre-fetched device information
+ * <p>
+ * The file starts with a magic number, a format version and the amount of devices, followed by each device: MAC
+ * address, IP address (empty if unknown), service port, a flags byte recording which device information is present, and
+ * then the present label, location, group and version.
+ */
+class DeviceCache {
+    private static final int MAGIC = 0x4C494658; // "LIFX"
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int HAS_LABEL = 1;
+    private static final int HAS_LOCATION = 1 << 1;
+    private static final int HAS_GROUP = 1 << 2;
+    private static final int HAS_VERSION = 1 << 3;
+
+    /**
+     * Write devices to a file, replacing it atomically so a crash never leaves a partial file behind
+     *
+     * @param file       the file to write
+     * @param deviceList the devices to write
+     *
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, Collection<Device> deviceList) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeByte(FORMAT_VERSION);
+            output.writeInt(deviceList.size());
+
+            for (Device device : deviceList) {
+                writeDevice(output, device);
+            }
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeDevice(DataOutputStream output, Device device) throws IOException {
+        // Only device information which has already been fetched is written, so saving never makes a request
+        StateLabel stateLabel = device.getCachedStateLabel();
+        StateLocation stateLocation = device.getCachedStateLocation();
+        StateGroup stateGroup = device.getCachedStateGroup();
+        StateVersion stateVersion = device.getCachedStateVersion();
+
+        // An unknown IP address is written as an empty address
+        InetAddress ipAddress = device.getIpAddress();
+        byte[] address = ipAddress == null ? new byte[0] : ipAddress.getAddress();
+
+        output.writeUTF(device.getMacAddress());
+        output.writeByte(address.length);
+        output.write(address);
+        output.writeInt(device.getServicePort());
+        output.writeByte((stateLabel == null ? 0 : HAS_LABEL) | (stateLocation == null ? 0 : HAS_LOCATION) | (stateGroup == null ? 0 : HAS_GROUP) | (stateVersion == null ? 0 : HAS_VERSION));
+
+        if (stateLabel != null) {
+            output.writeUTF(stateLabel.getLabel());
+        }
+
+        if (stateLocation != null) {
+            writeUUID(output, stateLocation.getLocation());
+            output.writeUTF(stateLocation.getLabel());
+            output.writeLong(stateLocation.getUpdated_at());
+        }
+
+        if (stateGroup != null) {
+            writeUUID(output, stateGroup.getGroup());
+            output.writeUTF(stateGroup.getLabel());
+            output.writeLong(stateGroup.getUpdated_at());
+        }
+
+        if (stateVersion != null) {
+            output.writeInt(stateVersion.getVendor());
+            output.writeInt(stateVersion.getProduct());
+        }
+    }
+
+    /**
+     * Read devices from a file
+     *
+     * @param file the file to read
+     *
+     * @return the devices, constructed with their pre-fetched device information
+     *
+     * @throws IOException if the file cannot be read, or is not a device cache
+     */
+    static List<Device> read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readByte() != FORMAT_VERSION) {
+                throw new IOException("Not a device cache (or an unsupported version): " + file);
+            }
+
+            int count = input.readInt();
+            List<Device> deviceList = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                deviceList.add(readDevice(input));
+            }
+
+            return deviceList;
+        }
+    }
+
+    private static Device readDevice(DataInputStream input) throws IOException {
+        String macAddress = input.readUTF();
+        byte[] address = new byte[input.readUnsignedByte()];
+        input.readFully(address);
+        int servicePort = input.readInt();
+        int flags = input.readUnsignedByte();
+
+        StateLabel stateLabel = null;
+        if ((flags & HAS_LABEL) != 0) {
+            stateLabel = new StateLabel();
+            stateLabel.setLabel(input.readUTF());
+        }
+
+        StateLocation stateLocation = null;
+        if ((flags & HAS_LOCATION) != 0) {
+            stateLocation = new StateLocation();
+            stateLocation.setLocation(readUUID(input));
+            stateLocation.setLabel(input.readUTF());
+            stateLocation.setUpdated_at(input.readLong());
+        }
+
+        StateGroup stateGroup = null;
+        if ((flags & HAS_GROUP) != 0) {
+            stateGroup = new StateGroup();
+            stateGroup.setGroup(readUUID(input));
+            stateGroup.setLabel(input.readUTF());
+            stateGroup.setUpdated_at(input.readLong());
+        }
+
+        StateVersion stateVersion = null;
+        if ((flags & HAS_VERSION) != 0) {
+            stateVersion = new StateVersion();
+            stateVersion.setVendor(input.readInt());
+            stateVersion.setProduct(input.readInt());
+        }
+
+        InetAddress ipAddress = address.length == 0 ? null : InetAddress.getByAddress(address);
+
+        return new Device(ipAddress, macAddress, servicePort, stateLabel, stateLocation, stateGroup, stateVersion);
+    }
+
+    private static void writeUUID(DataOutputStream output, UUID uuid) throws IOException {
+        output.writeLong(uuid.getMostSignificantBits());
+        output.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(DataInputStream input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+}
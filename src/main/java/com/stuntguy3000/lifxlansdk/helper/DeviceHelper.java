@@ -16,11 +16,37 @@ import com.stuntguy3000.lifxlansdk.messages.state.discovery.StateService;
 import com.stuntguy3000.lifxlansdk.object.product.Device;
 import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
 
 public class DeviceHelper {
+    /**
+     * The default time to wait for a new device to reply before discovery completes
+     */
+    public static final Duration DEFAULT_QUIET_WINDOW = Duration.ofMillis(300);
+    /**
+     * The longest discovery will take
+     */
+    public static final Duration DISCOVERY_DEADLINE = Duration.ofMillis(2500);
+    /**
+     * The maximum amount of devices fetching information at once
+     */
+    private static final int FETCH_WINDOW = 64;
+    /**
+     * Previously discovered devices
+     */
+    private static final DeviceRegistry registry = new DeviceRegistry();
+
     /**
      * Attempt to find all LIFX Devices on a network.
      * <p>
@@ -31,7 +57,76 @@ public class DeviceHelper {
      * @return the list of discovered devices (can be empty)
      */
     public static List<Device> findDevices() {
-        List<Packet> packetList = PacketHandler.sendMessage(new GetService(), null, true, 0);
+        return findDevices(DEFAULT_QUIET_WINDOW, 0);
+    }
+
+    /**
+     * Attempt to find all LIFX Devices on a network, completing as soon as the expected amount have been found.
+     * <p>
+     * Please note: LIFX Devices include non-lights.
+     * <p>
+     * To target lights, see {@link LightHelper}
+     *
+     * @param expectedDevices the amount of devices expected on the network (zero if unknown)
+     *
+     * @return the list of discovered devices (can be empty)
+     */
+    public static List<Device> findDevices(int expectedDevices) {
+        return findDevices(DEFAULT_QUIET_WINDOW, expectedDevices);
+    }
+
+    /**
+     * Attempt to find all LIFX Devices on a network, initializing them as per an initialization policy.
+     * <p>
+     * Please note: LIFX Devices include non-lights.
+     * <p>
+     * To target lights, see {@link LightHelper}
+     *
+     * @param initializationPolicy when the discovered devices fetch their device information
+     *
+     * @return the list of discovered devices (can be empty)
+     */
+    public static List<Device> findDevices(InitializationPolicy initializationPolicy) {
+        return findDevices(DEFAULT_QUIET_WINDOW, 0, initializationPolicy);
+    }
+
+    /**
+     * Attempt to find all LIFX Devices on a network.
+     * <p>
+     * Please note: LIFX Devices include non-lights.
+     * <p>
+     * To target lights, see {@link LightHelper}
+     *
+     * @param quietWindow     how long to wait for a new device to reply before completing
+     * @param expectedDevices the amount of devices expected on the network (zero if unknown)
+     *
+     * @return the list of discovered devices (can be empty)
+     *
+     * @see #findDevices(Duration, int, InitializationPolicy)
+     */
+    public static List<Device> findDevices(Duration quietWindow, int expectedDevices) {
+        return findDevices(quietWindow, expectedDevices, InitializationPolicy.EAGER);
+    }
+
+    /**
+     * Attempt to find all LIFX Devices on a network.
+     * <p>
+     * Discovery completes once no new device has replied for the quiet window, the expected amount of devices have
+     * been found, or {@link #DISCOVERY_DEADLINE} passes. With an {@link InitializationPolicy#EAGER} policy, the
+     * discovered devices are then initialized concurrently, and any device which fails to initialize is left out.
+     * <p>
+     * Please note: LIFX Devices include non-lights.
+     * <p>
+     * To target lights, see {@link LightHelper}
+     *
+     * @param quietWindow          how long to wait for a new device to reply before completing
+     * @param expectedDevices      the amount of devices expected on the network (zero if unknown)
+     * @param initializationPolicy when the discovered devices fetch their device information
+     *
+     * @return the list of discovered devices (can be empty)
+     */
+    public static List<Device> findDevices(Duration quietWindow, int expectedDevices, InitializationPolicy initializationPolicy) {
+        List<Packet> packetList = PacketHandler.broadcastMessageAsync(new GetService(), quietWindow, expectedDevices, DISCOVERY_DEADLINE).join();
         List<Device> deviceList = new ArrayList<>();
 
         for (Packet packet : packetList) {
@@ -40,27 +135,116 @@ public class DeviceHelper {
             if (message instanceof StateService) {
                 StateService service = (StateService) message;
 
-                Device device = new Device(packet.getIpAddress(), packet.getFrameAddress().getTarget(), service.getPort());
-
                 // Are we already tracking it?
-                // (Duplicates can happen)
+                // (Duplicates can happen, each device replies to every broadcast)
+                //  Devices are told apart by MAC address, as several devices can share an IP address (e.g. emulated)
                 boolean isTracked = false;
                 for (Device trackedDevice : deviceList) {
-                    if (trackedDevice.getIpAddress().equals(packet.getIpAddress())) {
+                    if (trackedDevice.getMacAddress().equalsIgnoreCase(packet.getFrameAddress().getTarget())) {
                         isTracked = true;
                         break;
                     }
                 }
 
                 if (!isTracked) {
-                    deviceList.add(device);
+                    // Eager devices are initialized below, all at once, rather than one by one as they are constructed
+                    InitializationPolicy policy = initializationPolicy == InitializationPolicy.EAGER ? InitializationPolicy.LAZY : initializationPolicy;
+                    deviceList.add(new Device(packet.getIpAddress(), packet.getFrameAddress().getTarget(), service.getPort(), policy));
                 }
             }
         }
 
+        if (initializationPolicy == InitializationPolicy.EAGER) {
+            return fetchAll(deviceList, Device::initAsync);
+        }
+
         return deviceList;
     }
 
+    /**
+     * Attempt to find all LIFX Devices of a type on a network.
+     * <p>
+     * Only the device versions are fetched to determine device types, any other device information is fetched as per
+     * the initialization policy.
+     *
+     * @param initializationPolicy when the discovered devices fetch their device information
+     * @param type                 the type of device to find
+     * @param constructor          constructs the specific device from each discovered device of the type
+     * @param <T>                  the specific device class
+     *
+     * @return the list of discovered devices of the type (can be empty)
+     */
+    public static <T extends Device> List<T> findDevices(InitializationPolicy initializationPolicy, DeviceType type, Function<Device, T> constructor) {
+        List<Device> deviceList = findDevices(initializationPolicy);
+        if (initializationPolicy != InitializationPolicy.EAGER) {
+            deviceList = fetchAll(deviceList, Device::getTypeAsync);
+        }
+
+        List<T> typedList = new ArrayList<>();
+
+        for (Device device : deviceList) {
+            if (device.getType() == type) {
+                typedList.add(constructor.apply(device));
+            }
+        }
+
+        return typedList;
+    }
+
+    /**
+     * Fetch information from many devices concurrently, with at most {@link #FETCH_WINDOW} devices fetching at once
+     * <p>
+     * This batches the first access of lazily fetched device information, for example
+     * {@code fetchAll(deviceList, Device::getStateLabelAsync)} before reading every device's label.
+     *
+     * @param deviceList the devices to fetch information from
+     * @param fetcher    fetches the information from a single device
+     * @param <T>        the device type
+     *
+     * @return the devices which successfully fetched the information, in their original order
+     */
+    public static <T extends Device> List<T> fetchAll(List<T> deviceList, Function<? super T, ? extends CompletableFuture<?>> fetcher) {
+        Queue<T> remaining = new ConcurrentLinkedQueue<>(deviceList);
+        Set<T> failed = ConcurrentHashMap.newKeySet();
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(FETCH_WINDOW, deviceList.size())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = fetchNext(remaining, failed, fetcher);
+        }
+
+        CompletableFuture.allOf(workers).join();
+
+        List<T> fetchedList = new ArrayList<>(deviceList);
+        fetchedList.removeAll(failed);
+
+        return fetchedList;
+    }
+
+    /**
+     * Fetch information from the next remaining device, and then the next, until none remain
+     *
+     * @param remaining the devices waiting to fetch information
+     * @param failed    collects the devices which fail to fetch information
+     * @param fetcher   fetches the information from a single device
+     * @param <T>       the device type
+     *
+     * @return a future completed once no remaining devices remain
+     */
+    private static <T extends Device> CompletableFuture<Void> fetchNext(Queue<T> remaining, Set<T> failed, Function<? super T, ? extends CompletableFuture<?>> fetcher) {
+        T device = remaining.poll();
+        if (device == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return fetcher.apply(device).handle((result, throwable) -> {
+            if (throwable != null) {
+                failed.add(device);
+            }
+
+            return result;
+        }).thenCompose(result -> fetchNext(remaining, failed, fetcher));
+    }
+
     /**
      * Attempt to find a LIFX Device by it's label (name).
      * <p>
@@ -71,17 +255,11 @@ public class DeviceHelper {
      * @param label the associated label
      *
      * @return the discovered device (or null)
+     *
+     * @see #getRegistry()
      */
     public static Device getDeviceByLabel(String label) {
-        List<Device> deviceList = findDevices();
-
-        for (Device device : deviceList) {
-            if (device.getLabel().equalsIgnoreCase(label)) {
-                return device;
-            }
-        }
-
-        return null;
+        return lookup(registry -> registry.getDeviceByLabel(label));
     }
 
     /**
@@ -94,16 +272,37 @@ public class DeviceHelper {
      * @param macAddress the associated MAC address.
      *
      * @return the discovered device (or null)
+     *
+     * @see #getRegistry()
      */
     public static Device getDeviceByMacAddress(String macAddress) {
-        List<Device> deviceList = findDevices();
+        return lookup(registry -> registry.getDeviceByMacAddress(macAddress));
+    }
 
-        for (Device device : deviceList) {
-            if (device.getMacAddress().equalsIgnoreCase(macAddress)) {
-                return device;
-            }
+    /**
+     * Get the registry of previously discovered devices, which device lookups are served from
+     *
+     * @return the device registry
+     */
+    public static DeviceRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Look up a device in the registry, refreshing the registry with a new discovery if it is not found
+     *
+     * @param lookup looks up the device in the registry
+     *
+     * @return the device (or null)
+     */
+    static Device lookup(Function<DeviceRegistry, Device> lookup) {
+        Device device = lookup.apply(registry);
+
+        if (device == null) {
+            registry.refresh();
+            device = lookup.apply(registry);
         }
 
-        return null;
+        return device;
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.helper;
+
+import com.stuntguy3000.lifxlansdk.object.product.Device;
+
+/**
+ * Listens for devices being added to, removed from, or changed in a {@link DeviceRegistry}
+ * <p>
+ * Listeners are called on the thread which changed the registry, so they should return quickly.
+ */
+public interface DeviceListener {
+    /**
+     * Called when a new device is registered
+     *
+     * @param device the registered device
+     */
+    default void deviceAdded(Device device) {
+    }
+
+    /**
+     * Called when a device is unregistered, for example after it stops replying to rediscovery
+     *
+     * @param device the unregistered device
+     */
+    default void deviceRemoved(Device device) {
+    }
+
+    /**
+     * Called when a registered device changes, for example when it moves to a new IP address
+     *
+     * @param device the changed device
+     */
+    default void deviceChanged(Device device) {
+    }
+}
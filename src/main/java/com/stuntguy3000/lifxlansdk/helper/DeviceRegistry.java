@@ -0,0 +1,433 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.helper;
+
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateGroup;
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateLabel;
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateLocation;
+import com.stuntguy3000.lifxlansdk.object.product.Device;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds discovered devices, indexed by MAC address, label, group, location and device type
+ * <p>
+ * Lookups are in-memory reads, the network is only used by {@link #refresh()} and rediscovery (see {@link
+ * #startRediscovery(Duration)}). Device information which changes after a device is registered (for example, a new
+ * label) is picked up by the next {@link #refresh()} or {@link #register(Device)}.
+ */
+public class DeviceRegistry {
+    /**
+     * The default amount of rediscovery probes in a row a device can miss before it is unregistered
+     */
+    public static final int DEFAULT_MAX_MISSED_PROBES = 3;
+
+    private final List<DeviceListener> listeners = new CopyOnWriteArrayList<>();
+    private Rediscovery rediscovery;
+
+    private final Map<Long, Registration> devicesByMacAddress = new ConcurrentHashMap<>();
+    private final Map<String, Set<Device>> devicesByLabel = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Device>> devicesByGroup = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Device>> devicesByLocation = new ConcurrentHashMap<>();
+    private final Map<DeviceType, Set<Device>> devicesByType = new ConcurrentHashMap<>();
+
+    /**
+     * Discover all devices on the network, and register them
+     * <p>
+     * Previously registered devices which are not discovered remain registered.
+     *
+     * @return the list of discovered devices (can be empty)
+     */
+    public List<Device> refresh() {
+        List<Device> deviceList = DeviceHelper.findDevices();
+
+        for (Device device : deviceList) {
+            register(device);
+        }
+
+        return deviceList;
+    }
+
+    /**
+     * Save all registered devices, and their device information, to a file
+     * <p>
+     * See {@link #load(Path)} to register them again, for example when the process restarts.
+     *
+     * @param file the file to save to
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        DeviceCache.write(file, getDevices());
+    }
+
+    /**
+     * Register all devices previously saved to a file, without any network communication
+     * <p>
+     * The loaded devices can be used straight away, and are then validated in the background (see {@link
+     * #validateAsync(List)}). Devices which have moved to a new IP address are found by rediscovery (see {@link
+     * #startRediscovery(Duration)}).
+     *
+     * @param file the file to load from
+     *
+     * @return the loaded devices (empty if the file does not exist)
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public List<Device> load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+
+        List<Device> deviceList = DeviceCache.read(file);
+        for (Device device : deviceList) {
+            register(device);
+        }
+
+        validateAsync(deviceList);
+
+        return deviceList;
+    }
+
+    /**
+     * Fetch the label, location and group of devices again in the background (and the version, if it is not known),
+     * and re-register the devices which reply so any changes are indexed (and listeners notified)
+     *
+     * @param deviceList the devices to validate
+     *
+     * @return a future completed once all devices are validated
+     */
+    public CompletableFuture<Void> validateAsync(List<Device> deviceList) {
+        return CompletableFuture.runAsync(() -> {
+            List<Device> validatedList = DeviceHelper.fetchAll(deviceList, device -> CompletableFuture.allOf(device.fetchLabelAsync(), device.fetchLocationAsync(), device.fetchGroupAsync(), device.getStateVersionAsync()));
+
+            for (Device device : validatedList) {
+                register(device);
+            }
+        });
+    }
+
+    /**
+     * Start periodically probing the network for devices in the background, keeping this registry up-to-date
+     * <p>
+     * New devices are registered, devices which move to a new IP address are updated, and devices which miss {@link
+     * #DEFAULT_MAX_MISSED_PROBES} probes in a row are unregistered. Listeners are notified of each change.
+     *
+     * @param interval the time between probes
+     */
+    public void startRediscovery(Duration interval) {
+        startRediscovery(interval, DEFAULT_MAX_MISSED_PROBES);
+    }
+
+    /**
+     * Start periodically probing the network for devices in the background, keeping this registry up-to-date
+     *
+     * @param interval        the time between probes
+     * @param maxMissedProbes the amount of probes in a row a device can miss before it is unregistered
+     *
+     * @see #startRediscovery(Duration)
+     */
+    public synchronized void startRediscovery(Duration interval, int maxMissedProbes) {
+        stopRediscovery();
+
+        rediscovery = new Rediscovery(this, interval, maxMissedProbes);
+    }
+
+    /**
+     * Stop background rediscovery, if it is running
+     */
+    public synchronized void stopRediscovery() {
+        if (rediscovery != null) {
+            rediscovery.stop();
+            rediscovery = null;
+        }
+    }
+
+    /**
+     * Add a listener, notified when devices are added, removed or changed
+     *
+     * @param listener the listener
+     */
+    public void addListener(DeviceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a previously added listener
+     *
+     * @param listener the listener
+     */
+    public void removeListener(DeviceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Register a device, replacing any device previously registered with the same MAC address
+     * <p>
+     * The device is indexed by the device information it has already fetched, so registering never makes a request.
+     * Register the device again once more of its device information is fetched to index it.
+     *
+     * @param device the device to register
+     */
+    public void register(Device device) {
+        StateLabel stateLabel = device.getCachedStateLabel();
+        StateGroup stateGroup = device.getCachedStateGroup();
+        StateLocation stateLocation = device.getCachedStateLocation();
+
+        Registration registration = new Registration(device, device.getIpAddress(), device.getServicePort(),
+                stateLabel == null ? null : stateLabel.getLabel().toLowerCase(Locale.ROOT),
+                stateGroup == null ? null : stateGroup.getGroup(),
+                stateLocation == null ? null : stateLocation.getLocation(),
+                device.getCachedStateVersion() == null ? null : device.getType());
+
+        Registration previous;
+        synchronized (this) {
+            previous = devicesByMacAddress.put(TypeUtil.macAddressToLong(device.getMacAddress()), registration);
+            if (previous != null) {
+                unindex(previous);
+            }
+
+            index(devicesByLabel, registration.getLabel(), device);
+            index(devicesByGroup, registration.getGroup(), device);
+            index(devicesByLocation, registration.getLocation(), device);
+            index(devicesByType, registration.getType(), device);
+        }
+
+        // Listeners are notified outside the lock, so they can safely use the registry
+        if (previous == null) {
+            listeners.forEach(listener -> listener.deviceAdded(device));
+        } else if (!previous.equals(registration)) {
+            listeners.forEach(listener -> listener.deviceChanged(device));
+        }
+    }
+
+    /**
+     * Unregister the device with a MAC address
+     *
+     * @param macAddress the MAC address of the device
+     *
+     * @return the unregistered device (or null)
+     */
+    public Device unregister(String macAddress) {
+        Registration registration;
+        synchronized (this) {
+            registration = devicesByMacAddress.remove(TypeUtil.macAddressToLong(macAddress));
+            if (registration == null) {
+                return null;
+            }
+
+            unindex(registration);
+        }
+
+        listeners.forEach(listener -> listener.deviceRemoved(registration.getDevice()));
+
+        return registration.getDevice();
+    }
+
+    /**
+     * Remove a registered device from the secondary indexes
+     *
+     * @param registration the registration of the device
+     */
+    private void unindex(Registration registration) {
+        unindex(devicesByLabel, registration.getLabel(), registration.getDevice());
+        unindex(devicesByGroup, registration.getGroup(), registration.getDevice());
+        unindex(devicesByLocation, registration.getLocation(), registration.getDevice());
+        unindex(devicesByType, registration.getType(), registration.getDevice());
+    }
+
+    private static <K> void index(Map<K, Set<Device>> index, K key, Device device) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(device);
+        }
+    }
+
+    private static <K> void unindex(Map<K, Set<Device>> index, K key, Device device) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, devices) -> {
+                devices.remove(device);
+                return devices.isEmpty() ? null : devices;
+            });
+        }
+    }
+
+    private static List<Device> lookup(Map<?, Set<Device>> index, Object key) {
+        Set<Device> devices = index.get(key);
+
+        return devices == null ? Collections.emptyList() : new ArrayList<>(devices);
+    }
+
+    /**
+     * Get all registered devices
+     *
+     * @return the list of registered devices (can be empty)
+     */
+    public List<Device> getDevices() {
+        List<Device> deviceList = new ArrayList<>();
+        for (Registration registration : devicesByMacAddress.values()) {
+            deviceList.add(registration.getDevice());
+        }
+
+        return deviceList;
+    }
+
+    /**
+     * Get the amount of registered devices
+     *
+     * @return the amount of registered devices
+     */
+    public int size() {
+        return devicesByMacAddress.size();
+    }
+
+    /**
+     * Get a registered device by its MAC address
+     *
+     * @param macAddress the MAC address, with or without separators
+     *
+     * @return the registered device (or null)
+     */
+    public Device getDeviceByMacAddress(String macAddress) {
+        Registration registration = devicesByMacAddress.get(TypeUtil.macAddressToLong(macAddress));
+
+        return registration == null ? null : registration.getDevice();
+    }
+
+    /**
+     * Get a registered device of a specific type by its MAC address
+     *
+     * @param macAddress the MAC address, with or without separators
+     * @param type       the device type
+     *
+     * @return the registered device (or null)
+     */
+    public Device getDeviceByMacAddress(String macAddress, DeviceType type) {
+        Registration registration = devicesByMacAddress.get(TypeUtil.macAddressToLong(macAddress));
+
+        return registration == null || registration.getType() != type ? null : registration.getDevice();
+    }
+
+    /**
+     * Get all registered devices with a label (case-insensitive)
+     *
+     * @param label the label
+     *
+     * @return the list of registered devices (can be empty)
+     */
+    public List<Device> getDevicesByLabel(String label) {
+        return lookup(devicesByLabel, label.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get a registered device by its label (case-insensitive)
+     *
+     * @param label the label
+     *
+     * @return a registered device with the label (or null)
+     */
+    public Device getDeviceByLabel(String label) {
+        List<Device> deviceList = getDevicesByLabel(label);
+
+        return deviceList.isEmpty() ? null : deviceList.get(0);
+    }
+
+    /**
+     * Get a registered device of a specific type by its label (case-insensitive)
+     *
+     * @param label the label
+     * @param type  the device type
+     *
+     * @return a registered device with the label and type (or null)
+     */
+    public Device getDeviceByLabel(String label, DeviceType type) {
+        Set<Device> typedDevices = devicesByType.getOrDefault(type, Collections.emptySet());
+
+        for (Device device : getDevicesByLabel(label)) {
+            if (typedDevices.contains(device)) {
+                return device;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get all registered devices in a group
+     *
+     * @param group the UUID id of the group
+     *
+     * @return the list of registered devices (can be empty)
+     */
+    public List<Device> getDevicesByGroup(UUID group) {
+        return lookup(devicesByGroup, group);
+    }
+
+    /**
+     * Get all registered devices in a location
+     *
+     * @param location the UUID id of the location
+     *
+     * @return the list of registered devices (can be empty)
+     */
+    public List<Device> getDevicesByLocation(UUID location) {
+        return lookup(devicesByLocation, location);
+    }
+
+    /**
+     * Get all registered devices of a type
+     *
+     * @param type the device type
+     *
+     * @return the list of registered devices (can be empty)
+     */
+    public List<Device> getDevicesByType(DeviceType type) {
+        return lookup(devicesByType, type);
+    }
+
+    /**
+     * A registered device, and the address and keys it was registered with
+     * <p>
+     * Registrations are equal when they register a device with the same address and keys, even if a newer device
+     * object replaced the previous one.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class Registration {
+        @EqualsAndHashCode.Exclude
+        private final Device device;
+        private final InetAddress ipAddress;
+        private final int servicePort;
+        private final String label;
+        private final UUID group;
+        private final UUID location;
+        private final DeviceType type;
+    }
+}
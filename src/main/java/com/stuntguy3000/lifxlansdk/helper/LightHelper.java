@@ -13,8 +13,8 @@ package com.stuntguy3000.lifxlansdk.helper;
 import com.stuntguy3000.lifxlansdk.object.product.Device;
 import com.stuntguy3000.lifxlansdk.object.product.Light;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class LightHelper {
@@ -25,16 +25,20 @@ public class LightHelper {
      * @return the list of discovered lights (can be empty)
      */
     public static List<Light> findLights() {
-        List<Device> deviceList = DeviceHelper.findDevices();
-        List<Light> lightList = new ArrayList<>();
-
-        for (Device device : deviceList) {
-            if (device.getType() == DeviceType.LIGHT) {
-                lightList.add(new Light(device));
-            }
-        }
+        return findLights(InitializationPolicy.EAGER);
+    }
 
-        return lightList;
+    /**
+     * Attempt to find all LIFX Lights on a network.
+     * <p>
+     * See {@link DeviceHelper#findDevices(InitializationPolicy, DeviceType, java.util.function.Function)}.
+     *
+     * @param initializationPolicy when the discovered devices fetch their device information
+     *
+     * @return the list of discovered lights (can be empty)
+     */
+    public static List<Light> findLights(InitializationPolicy initializationPolicy) {
+        return DeviceHelper.findDevices(initializationPolicy, DeviceType.LIGHT, Light::new);
     }
 
     /**
@@ -45,15 +49,9 @@ public class LightHelper {
      * @return the discovered light (or null)
      */
     public static Light getLightByLabel(String label) {
-        List<Light> lightList = findLights();
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByLabel(label, DeviceType.LIGHT));
 
-        for (Light light : lightList) {
-            if (light.getLabel().equalsIgnoreCase(label)) {
-                return light;
-            }
-        }
-
-        return null;
+        return device == null ? null : new Light(device);
     }
 
     /**
@@ -64,14 +62,8 @@ public class LightHelper {
      * @return the discovered light (or null)
      */
     public static Light getLightByMacAddress(String macAddress) {
-        List<Light> lightList = findLights();
-
-        for (Light light : lightList) {
-            if (light.getMacAddress().equalsIgnoreCase(macAddress)) {
-                return light;
-            }
-        }
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByMacAddress(macAddress, DeviceType.LIGHT));
 
-        return null;
+        return device == null ? null : new Light(device);
     }
 }
@@ -13,8 +13,8 @@ package com.stuntguy3000.lifxlansdk.helper;
 import com.stuntguy3000.lifxlansdk.object.product.Device;
 import com.stuntguy3000.lifxlansdk.object.product.MultiZone;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class MultiZoneHelper {
@@ -25,16 +25,20 @@ public class MultiZoneHelper {
      * @return the list of discovered MultiZone (can be empty)
      */
     public static List<MultiZone> findMultiZones() {
-        List<Device> deviceList = DeviceHelper.findDevices();
-        List<MultiZone> multiZoneList = new ArrayList<>();
-
-        for (Device device : deviceList) {
-            if (device.getType() == DeviceType.MULTIZONE) {
-                multiZoneList.add(new MultiZone(device));
-            }
-        }
+        return findMultiZones(InitializationPolicy.EAGER);
+    }
 
-        return multiZoneList;
+    /**
+     * Attempt to find all LIFX MultiZone lights on a network.
+     * <p>
+     * See {@link DeviceHelper#findDevices(InitializationPolicy, DeviceType, java.util.function.Function)}.
+     *
+     * @param initializationPolicy when the discovered devices fetch their device information
+     *
+     * @return the list of discovered MultiZone (can be empty)
+     */
+    public static List<MultiZone> findMultiZones(InitializationPolicy initializationPolicy) {
+        return DeviceHelper.findDevices(initializationPolicy, DeviceType.MULTIZONE, MultiZone::new);
     }
 
     /**
@@ -45,15 +49,9 @@ public class MultiZoneHelper {
      * @return the discovered MultiZone (or null)
      */
     public static MultiZone getMultiZoneByLabel(String label) {
-        List<MultiZone> multiZoneList = findMultiZones();
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByLabel(label, DeviceType.MULTIZONE));
 
-        for (MultiZone multiZone : multiZoneList) {
-            if (multiZone.getLabel().equalsIgnoreCase(label)) {
-                return multiZone;
-            }
-        }
-
-        return null;
+        return device == null ? null : new MultiZone(device);
     }
 
     /**
@@ -64,14 +62,8 @@ public class MultiZoneHelper {
      * @return the discovered MultiZone (or null)
      */
     public static MultiZone getMultiZoneByMacAddress(String macAddress) {
-        List<MultiZone> multiZoneList = findMultiZones();
-
-        for (MultiZone multiZone : multiZoneList) {
-            if (multiZone.getMacAddress().equalsIgnoreCase(macAddress)) {
-                return multiZone;
-            }
-        }
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByMacAddress(macAddress, DeviceType.MULTIZONE));
 
-        return null;
+        return device == null ? null : new MultiZone(device);
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.helper;
+
+import com.stuntguy3000.lifxlansdk.event.Events;
+import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
+import com.stuntguy3000.lifxlansdk.messages.get.discovery.GetService;
+import com.stuntguy3000.lifxlansdk.messages.state.discovery.StateService;
+import com.stuntguy3000.lifxlansdk.object.product.Device;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically probes the network with a single GetService broadcast, and updates a registry incrementally
+ * <p>
+ * New devices are initialized and registered, devices which reply from a new address are updated, and devices which
+ * miss several probes in a row are unregistered. Unlike a full discovery, each probe is one broadcast packet.
+ */
+class Rediscovery {
+    private final DeviceRegistry registry;
+    private final int maxMissedProbes;
+
+    /**
+     * The amount of probes in a row each registered device has not replied to, keyed by packed MAC address
+     * <p>
+     * Only accessed from the rediscovery thread.
+     */
+    private final Map<Long, Integer> missedProbes = new HashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LIFX-Rediscovery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Start rediscovery
+     *
+     * @param registry        the registry to update
+     * @param interval        the time between probes
+     * @param maxMissedProbes the amount of probes in a row a device can miss before it is unregistered
+     */
+    Rediscovery(DeviceRegistry registry, Duration interval, int maxMissedProbes) {
+        this.registry = registry;
+        this.maxMissedProbes = maxMissedProbes;
+
+        scheduler.scheduleWithFixedDelay(this::probe, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop rediscovery
+     */
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Probe the network once, and update the registry with the replies
+     */
+    private void probe() {
+        try {
+            // No expected device count, new devices may reply after every registered device has
+            List<Packet> packetList = PacketHandler.broadcastMessageAsync(new GetService(), 1, DeviceHelper.DEFAULT_QUIET_WINDOW, 0, DeviceHelper.DISCOVERY_DEADLINE).join();
+
+            update(packetList);
+        } catch (Exception exception) {
+            // Never let an exception cancel the schedule
+            Events.error("Rediscovery probe failed", exception);
+        }
+    }
+
+    /**
+     * Update the registry with the replies to a probe
+     *
+     * @param packetList the replies to the probe
+     */
+    private void update(List<Packet> packetList) {
+        Set<Long> seen = new HashSet<>();
+        List<Device> newDevices = new ArrayList<>();
+
+        for (Packet packet : packetList) {
+            if (!(packet.getMessage() instanceof StateService)) {
+                continue;
+            }
+
+            StateService service = (StateService) packet.getMessage();
+            String macAddress = packet.getFrameAddress().getTarget();
+
+            if (!seen.add(TypeUtil.macAddressToLong(macAddress))) {
+                continue;
+            }
+
+            Device device = registry.getDeviceByMacAddress(macAddress);
+            if (device == null) {
+                newDevices.add(new Device(packet.getIpAddress(), macAddress, service.getPort(), InitializationPolicy.LAZY));
+            } else if (!packet.getIpAddress().equals(device.getIpAddress()) || service.getPort() != device.getServicePort()) {
+                device.setIpAddress(packet.getIpAddress());
+                device.setServicePort(service.getPort());
+                registry.register(device);
+            }
+        }
+
+        // New devices are only registered once initialized, so they can be indexed
+        for (Device device : DeviceHelper.fetchAll(newDevices, Device::initAsync)) {
+            registry.register(device);
+        }
+
+        for (Device device : registry.getDevices()) {
+            long key = TypeUtil.macAddressToLong(device.getMacAddress());
+
+            if (seen.contains(key)) {
+                missedProbes.remove(key);
+            } else if (missedProbes.merge(key, 1, Integer::sum) >= maxMissedProbes) {
+                missedProbes.remove(key);
+                registry.unregister(device.getMacAddress());
+            }
+        }
+    }
+}
@@ -13,8 +13,8 @@ package com.stuntguy3000.lifxlansdk.helper;
 import com.stuntguy3000.lifxlansdk.object.product.Device;
 import com.stuntguy3000.lifxlansdk.object.product.Relay;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class RelayHelper {
@@ -25,16 +25,20 @@ public class RelayHelper {
      * @return the list of discovered Relay (can be empty)
      */
     public static List<Relay> findRelay() {
-        List<Device> deviceList = DeviceHelper.findDevices();
-        List<Relay> relayList = new ArrayList<>();
-
-        for (Device device : deviceList) {
-            if (device.getType() == DeviceType.RELAY) {
-                relayList.add(new Relay(device));
-            }
-        }
+        return findRelay(InitializationPolicy.EAGER);
+    }
 
-        return relayList;
+    /**
+     * Attempt to find all LIFX Relay devices on a network.
+     * <p>
+     * See {@link DeviceHelper#findDevices(InitializationPolicy, DeviceType, java.util.function.Function)}.
+     *
+     * @param initializationPolicy when the discovered devices fetch their device information
+     *
+     * @return the list of discovered Relay (can be empty)
+     */
+    public static List<Relay> findRelay(InitializationPolicy initializationPolicy) {
+        return DeviceHelper.findDevices(initializationPolicy, DeviceType.RELAY, Relay::new);
     }
 
     /**
@@ -45,15 +49,9 @@ public class RelayHelper {
      * @return the discovered Relay (or null)
      */
     public static Relay getRelayByLabel(String label) {
-        List<Relay> relayList = findRelay();
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByLabel(label, DeviceType.RELAY));
 
-        for (Relay relay : relayList) {
-            if (relay.getLabel().equalsIgnoreCase(label)) {
-                return relay;
-            }
-        }
-
-        return null;
+        return device == null ? null : new Relay(device);
     }
 
     /**
@@ -64,14 +62,8 @@ public class RelayHelper {
      * @return the discovered Relay (or null)
      */
     public static Relay getRelayByMacAddress(String macAddress) {
-        List<Relay> relayList = findRelay();
-
-        for (Relay relay : relayList) {
-            if (relay.getMacAddress().equalsIgnoreCase(macAddress)) {
-                return relay;
-            }
-        }
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByMacAddress(macAddress, DeviceType.RELAY));
 
-        return null;
+        return device == null ? null : new Relay(device);
     }
 }
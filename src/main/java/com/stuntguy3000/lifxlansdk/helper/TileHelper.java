@@ -13,8 +13,8 @@ package com.stuntguy3000.lifxlansdk.helper;
 import com.stuntguy3000.lifxlansdk.object.product.Device;
 import com.stuntguy3000.lifxlansdk.object.product.Tile;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class TileHelper {
@@ -25,16 +25,20 @@ public class TileHelper {
      * @return the list of discovered Tile (can be empty)
      */
     public static List<Tile> findTiles() {
-        List<Device> deviceList = DeviceHelper.findDevices();
-        List<Tile> tileList = new ArrayList<>();
-
-        for (Device device : deviceList) {
-            if (device.getType() == DeviceType.MATRIX) {
-                tileList.add(new Tile(device));
-            }
-        }
+        return findTiles(InitializationPolicy.EAGER);
+    }
 
-        return tileList;
+    /**
+     * Attempt to find all LIFX Tile lights on a network.
+     * <p>
+     * See {@link DeviceHelper#findDevices(InitializationPolicy, DeviceType, java.util.function.Function)}.
+     *
+     * @param initializationPolicy when the discovered devices fetch their device information
+     *
+     * @return the list of discovered Tile (can be empty)
+     */
+    public static List<Tile> findTiles(InitializationPolicy initializationPolicy) {
+        return DeviceHelper.findDevices(initializationPolicy, DeviceType.MATRIX, Tile::new);
     }
 
     /**
@@ -45,15 +49,9 @@ public class TileHelper {
      * @return the discovered Tile (or null)
      */
     public static Tile getTileByLabel(String label) {
-        List<Tile> tileList = findTiles();
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByLabel(label, DeviceType.MATRIX));
 
-        for (Tile tile : tileList) {
-            if (tile.getLabel().equalsIgnoreCase(label)) {
-                return tile;
-            }
-        }
-
-        return null;
+        return device == null ? null : new Tile(device);
     }
 
     /**
@@ -64,14 +62,8 @@ public class TileHelper {
      * @return the discovered Tile (or null)
      */
     public static Tile getTileByMacAddress(String macAddress) {
-        List<Tile> tileList = findTiles();
-
-        for (Tile tile : tileList) {
-            if (tile.getMacAddress().equalsIgnoreCase(macAddress)) {
-                return tile;
-            }
-        }
+        Device device = DeviceHelper.lookup(registry -> registry.getDeviceByMacAddress(macAddress, DeviceType.MATRIX));
 
-        return null;
+        return device == null ? null : new Tile(device);
     }
 }
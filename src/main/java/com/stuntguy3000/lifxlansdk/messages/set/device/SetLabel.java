@@ -11,6 +11,7 @@
 package com.stuntguy3000.lifxlansdk.messages.set.device;
 
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 
 /**
@@ -19,7 +20,7 @@ import com.stuntguy3000.lifxlansdk.util.TypeUtil;
  * <p>
  * Will return one StateLabel (25) message
  */
-public class SetLabel extends Message {
+public class SetLabel extends Message implements Supersedable {
     private final String label;
 
     public SetLabel(String label) {
@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.device;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 
@@ -45,7 +46,7 @@ public class SetLocation extends Message {
             byteArrayOutputStream.write(TypeUtil.stringToBytesWithPadding(label, 32));
             byteArrayOutputStream.write(TypeUtil.uint64ToBytesLittleEndian(updated_at));
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
@@ -10,15 +10,18 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.device;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
+
+import java.nio.ByteBuffer;
 
 /**
  * This packet lets you set the current level of power on the device.
  * <p>
  * Will return one StatePower (22) message
  */
-public class SetPower extends Message {
+public class SetPower extends Message implements Supersedable {
     private final int level;
 
     public SetPower(int level) {
@@ -29,6 +32,11 @@ public class SetPower extends Message {
 
     @Override
     public byte[] toBytes() {
-        return TypeUtil.uint16ToBytesLittleEndian(level);
+        return ByteData.encodeToBytes(this, 2);
+    }
+
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.putShort((short) level);
     }
 }
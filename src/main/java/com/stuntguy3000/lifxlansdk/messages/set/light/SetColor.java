@@ -10,11 +10,11 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.light;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * This packet lets you set the HSBK value for the light. For devices that have multiple zones, this will set all Zones
@@ -22,7 +22,7 @@ import java.io.IOException;
  * <p>
  * Will return one LightState (107) message
  */
-public class SetColor extends Message {
+public class SetColor extends Message implements Supersedable {
     private final int hue;
     private final int saturation;
     private final int brightness;
@@ -41,19 +41,16 @@ public class SetColor extends Message {
 
     @Override
     public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(13);
-
-        try {
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(hue));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(saturation));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(brightness));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(kelvin));
-            byteArrayOutputStream.write(TypeUtil.uint32ToBytesLittleEndian(duration));
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
-        }
-
-        return byteArrayOutputStream.toByteArray();
+        return ByteData.encodeToBytes(this, 13);
+    }
+
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.put((byte) 0);
+        buffer.putShort((short) hue);
+        buffer.putShort((short) saturation);
+        buffer.putShort((short) brightness);
+        buffer.putShort((short) kelvin);
+        buffer.putInt(duration);
     }
 }
@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.light;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 
@@ -42,7 +43,7 @@ public class SetHevCycle extends Message {
             byteArrayOutputStream.write(TypeUtil.boolintToByte(enable));
             byteArrayOutputStream.write(TypeUtil.uint32ToBytesLittleEndian(duration_s));
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
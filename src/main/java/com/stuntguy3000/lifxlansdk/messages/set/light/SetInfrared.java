@@ -10,8 +10,11 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.light;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
+
+import java.nio.ByteBuffer;
 
 /**
  * This packet lets you change the current infrared value on the device
@@ -21,7 +24,7 @@ import com.stuntguy3000.lifxlansdk.util.TypeUtil;
  * This packet requires the device has the infrared capability. You may use GetVersion (32), GetHostFirmware (14) and
  * the Product Registry to determine whether your device has this capability
  */
-public class SetInfrared extends Message {
+public class SetInfrared extends Message implements Supersedable {
     private final int brightness;
 
     public SetInfrared(int brightness) {
@@ -32,6 +35,11 @@ public class SetInfrared extends Message {
 
     @Override
     public byte[] toBytes() {
-        return TypeUtil.uint16ToBytesLittleEndian(brightness);
+        return ByteData.encodeToBytes(this, 2);
+    }
+
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.putShort((short) brightness);
     }
 }
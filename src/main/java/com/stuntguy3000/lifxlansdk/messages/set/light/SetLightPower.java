@@ -10,11 +10,11 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.light;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * This is the same as {@link com.stuntguy3000.lifxlansdk.messages.set.device.SetPower} (21) but allows you to specify
@@ -22,7 +22,7 @@ import java.io.IOException;
  * <p>
  * Will return one {@link com.stuntguy3000.lifxlansdk.messages.state.light.StateLightPower} (118) message
  */
-public class SetLightPower extends Message {
+public class SetLightPower extends Message implements Supersedable {
     /**
      * If you specify 0 the light will turn off and if you specify 65535 the device will turn on.
      */
@@ -41,15 +41,12 @@ public class SetLightPower extends Message {
 
     @Override
     public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(6);
-
-        try {
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(level));
-            byteArrayOutputStream.write(TypeUtil.uint32ToBytesLittleEndian(duration));
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
-        }
+        return ByteData.encodeToBytes(this, 6);
+    }
 
-        return byteArrayOutputStream.toByteArray();
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.putShort((short) level);
+        buffer.putInt(duration);
     }
 }
@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.light;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.Waveform;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
@@ -70,7 +71,7 @@ public class SetWaveform extends Message {
 
             byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(waveform.getNumericValue()));
         } catch (IOException e) {
-            e.printStackTrace();
+            Events.encodeError(getType(), e);
         }
 
         return byteArrayOutputStream.toByteArray();
@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.light;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.Waveform;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
@@ -83,7 +84,7 @@ public class SetWaveformOptional extends Message {
             byteArrayOutputStream.write(TypeUtil.boolintToByte(set_brightness));
             byteArrayOutputStream.write(TypeUtil.boolintToByte(set_kelvin));
         } catch (IOException e) {
-            e.printStackTrace();
+            Events.encodeError(getType(), e);
         }
 
         return byteArrayOutputStream.toByteArray();
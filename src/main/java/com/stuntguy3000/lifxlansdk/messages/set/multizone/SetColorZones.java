@@ -10,12 +10,12 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.multizone;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneApplicationRequest;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Set a segment of your strip to a HSBK value. If your devices supports extended multizone messages it is recommended
@@ -27,7 +27,7 @@ import java.io.IOException;
  * com.stuntguy3000.lifxlansdk.messages.get.device.GetVersion} (32), {@link com.stuntguy3000.lifxlansdk.messages.get.device.GetHostFirmware}
  * (14) and the Product Registry to determine whether your device has this capability
  */
-public class SetColorZones extends Message {
+public class SetColorZones extends Message implements Supersedable {
 
     private final int start_index;
     private final int end_index;
@@ -53,25 +53,37 @@ public class SetColorZones extends Message {
         this.apply = apply;
     }
 
+    /**
+     * Only a write to the same zones, applied the same way, supersedes another: an {@link
+     * MultiZoneApplicationRequest#APPLY_ONLY} write applies a staged {@link MultiZoneApplicationRequest#NO_APPLY} write
+     * rather than replacing it
+     */
     @Override
-    public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(15);
+    public boolean supersedes(Message other) {
+        if (!(other instanceof SetColorZones)) {
+            return false;
+        }
 
-        try {
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(start_index));
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(end_index));
+        SetColorZones setColorZones = (SetColorZones) other;
+        return setColorZones.start_index == start_index && setColorZones.end_index == end_index && setColorZones.apply == apply;
+    }
 
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(hue));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(saturation));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(brightness));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(kelvin));
+    @Override
+    public byte[] toBytes() {
+        return ByteData.encodeToBytes(this, 15);
+    }
 
-            byteArrayOutputStream.write(TypeUtil.uint32ToBytesLittleEndian(duration));
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(apply.getNumericValue()));
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
-        }
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.put((byte) start_index);
+        buffer.put((byte) end_index);
+
+        buffer.putShort((short) hue);
+        buffer.putShort((short) saturation);
+        buffer.putShort((short) brightness);
+        buffer.putShort((short) kelvin);
 
-        return byteArrayOutputStream.toByteArray();
+        buffer.putInt(duration);
+        buffer.put((byte) apply.getNumericValue());
     }
 }
@@ -11,12 +11,12 @@
 package com.stuntguy3000.lifxlansdk.messages.set.multizone;
 
 import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneExtendedApplicationRequest;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * This message lets you change the HSBK values for all zones on the strip in one message.
@@ -27,7 +27,7 @@ import java.io.IOException;
  * com.stuntguy3000.lifxlansdk.messages.get.device.GetVersion} (32), {@link com.stuntguy3000.lifxlansdk.messages.get.device.GetHostFirmware}
  * (14) and the Product Registry to determine whether your device has this capability
  */
-public class SetExtendedColorZones extends Message {
+public class SetExtendedColorZones extends Message implements Supersedable {
 
     private final int duration;
     private final MultiZoneExtendedApplicationRequest apply;
@@ -44,32 +44,43 @@ public class SetExtendedColorZones extends Message {
         this.colors = colors;
     }
 
+    /**
+     * Only a write to the same zones, applied the same way, supersedes another: an {@link
+     * MultiZoneExtendedApplicationRequest#APPLY_ONLY} write applies a staged {@link
+     * MultiZoneExtendedApplicationRequest#NO_APPLY} write rather than replacing it
+     */
+    @Override
+    public boolean supersedes(Message other) {
+        if (!(other instanceof SetExtendedColorZones)) {
+            return false;
+        }
+
+        SetExtendedColorZones setExtendedColorZones = (SetExtendedColorZones) other;
+        return setExtendedColorZones.zone_index == zone_index && setExtendedColorZones.colors_count == colors_count && setExtendedColorZones.apply == apply;
+    }
+
     @Override
     public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        return ByteData.encodeToBytes(this, 664);
+    }
 
-        try {
-            byteArrayOutputStream.write(TypeUtil.uint32ToBytesLittleEndian(duration));
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(apply.getNumericValue()));
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.putInt(duration);
+        buffer.put((byte) apply.getNumericValue());
 
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(zone_index));
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(colors_count));
+        buffer.putShort((short) zone_index);
+        buffer.put((byte) colors_count);
 
-            Color[] colorsToWrite = new Color[82];
-            System.arraycopy(colors, 0, colorsToWrite, 0, Math.min(colors.length, 82));
+        // Always 82 colors, unset zones are sent as black
+        for (int i = 0; i < 82; i++) {
+            Color color = i < colors.length ? colors[i] : null;
 
-            for (Color color : colorsToWrite) {
-                if (color == null) {
-                    //byteArrayOutputStream.write(TypeUtil.uint64ToBytesLittleEndian(0)); // Null?
-                    byteArrayOutputStream.write(Color.BLACK.toBytes());
-                } else {
-                    byteArrayOutputStream.write(color.toBytes());
-                }
+            if (color == null) {
+                Color.BLACK.encodeInto(buffer);
+            } else {
+                color.encodeInto(buffer);
             }
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
         }
-
-        return byteArrayOutputStream.toByteArray();
     }
 }
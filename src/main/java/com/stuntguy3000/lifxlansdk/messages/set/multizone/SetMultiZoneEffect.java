@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.multizone;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneEffectType;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
@@ -71,7 +72,7 @@ public class SetMultiZoneEffect extends Message {
 
             byteArrayOutputStream.write(parameters);
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
@@ -10,7 +10,9 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.relay;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 
 import java.io.ByteArrayOutputStream;
@@ -26,7 +28,7 @@ import java.io.IOException;
  * (32), {@link com.stuntguy3000.lifxlansdk.messages.get.device.GetHostFirmware} (14) and the Product Registry to
  * determine whether your device has this capability
  */
-public class SetRPower extends Message {
+public class SetRPower extends Message implements Supersedable {
     private final int relay_index;
     private final int level;
 
@@ -37,6 +39,11 @@ public class SetRPower extends Message {
         this.level = level;
     }
 
+    @Override
+    public boolean supersedes(Message other) {
+        return other instanceof SetRPower && ((SetRPower) other).relay_index == relay_index;
+    }
+
     @Override
     public byte[] toBytes() {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(3);
@@ -45,7 +52,7 @@ public class SetRPower extends Message {
             byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(relay_index));
             byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(level));
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
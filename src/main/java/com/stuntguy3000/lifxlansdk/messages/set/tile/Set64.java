@@ -11,11 +11,11 @@
 package com.stuntguy3000.lifxlansdk.messages.set.tile;
 
 import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Supersedable;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * This lets you set up to 64 HSBK values on the device.
@@ -26,7 +26,7 @@ import java.io.IOException;
  * com.stuntguy3000.lifxlansdk.messages.get.device.GetVersion} (32), {@link com.stuntguy3000.lifxlansdk.messages.get.device.GetHostFirmware}
  * (14) and the Product Registry to determine whether your device has this capability
  */
-public class Set64 extends Message {
+public class Set64 extends Message implements Supersedable {
     /**
      * The device to change. This is 0 indexed and starts from the device closest to the controller.
      */
@@ -68,35 +68,42 @@ public class Set64 extends Message {
         this.colors = colors;
     }
 
+    @Override
+    public boolean supersedes(Message other) {
+        if (!(other instanceof Set64)) {
+            return false;
+        }
+
+        Set64 set64 = (Set64) other;
+        return set64.tile_index == tile_index && set64.length == length && set64.x == x && set64.y == y && set64.width == width;
+    }
+
     @Override
     public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        return ByteData.encodeToBytes(this, 522);
+    }
 
-        try {
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(tile_index));
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(length));
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.put((byte) tile_index);
+        buffer.put((byte) length);
 
-            byteArrayOutputStream.write(0);
+        buffer.put((byte) 0);
 
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(x));
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(y));
-            byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(width));
-            byteArrayOutputStream.write(TypeUtil.uint32ToBytesLittleEndian(duration));
+        buffer.put((byte) x);
+        buffer.put((byte) y);
+        buffer.put((byte) width);
+        buffer.putInt(duration);
 
-            Color[] colorsToWrite = new Color[64];
-            System.arraycopy(colors, 0, colorsToWrite, 0, Math.min(colors.length, 64));
+        // Always 64 colors, unset zones are sent as zeros
+        for (int i = 0; i < 64; i++) {
+            Color color = i < colors.length ? colors[i] : null;
 
-            for (Color color : colorsToWrite) {
-                if (color == null) {
-                    byteArrayOutputStream.write(TypeUtil.uint64ToBytesLittleEndian(0)); // Null
-                } else {
-                    byteArrayOutputStream.write(color.toBytes());
-                }
+            if (color == null) {
+                buffer.putLong(0);
+            } else {
+                color.encodeInto(buffer);
             }
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
         }
-
-        return byteArrayOutputStream.toByteArray();
     }
 }
@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.tile;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.Color;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.TileEffectType;
@@ -102,7 +103,7 @@ public class SetTileEffect extends Message {
                 }
             }
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
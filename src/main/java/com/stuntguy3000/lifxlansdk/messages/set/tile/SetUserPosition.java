@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.set.tile;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 
@@ -52,7 +53,7 @@ public class SetUserPosition extends Message {
             byteArrayOutputStream.write(TypeUtil.floatToBytesLittleEndian(user_x));
             byteArrayOutputStream.write(TypeUtil.floatToBytesLittleEndian(user_y));
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
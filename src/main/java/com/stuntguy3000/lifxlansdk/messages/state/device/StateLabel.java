@@ -10,12 +10,15 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.device;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 /**
  * This packet tells us the label of the device.
  * <p>
@@ -34,7 +37,11 @@ public class StateLabel extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        // Thanks, https://stackoverflow.com/a/8843313
-        label = TypeUtil.bytesToString(data);
+        ByteData.decodeFromBytes(this, data);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        label = TypeUtil.bufferToString(buffer, offset, Math.min(length, 32));
     }
 }
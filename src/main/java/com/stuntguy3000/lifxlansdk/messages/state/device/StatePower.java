@@ -10,12 +10,14 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.device;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 /**
  * This packet tells us the current power level of the device. 0 means off and any other value means on. Note that 65535
  * is full power and during a power transition (i.e. via {@link com.stuntguy3000.lifxlansdk.messages.set.light.SetLightPower}
@@ -39,7 +41,12 @@ public class StatePower extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        level = TypeUtil.littleEndianBytesToUint16(data[0], data[1]);
+        ByteData.decodeFromBytes(this, data);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        level = buffer.getShort(offset) & 0xffff;
     }
 }
 
@@ -10,12 +10,14 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.device;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 /**
  * This packet tell us the version of the firmware on the device. This information can be used with our Product Registry
  * to determine what capabilities are supported by the device.
@@ -41,7 +43,12 @@ public class StateVersion extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        vendor = TypeUtil.littleEndianBytesToUint32(data[0], data[1], data[2], data[3]);
-        product = TypeUtil.littleEndianBytesToUint32(data[4], data[5], data[6], data[7]);
+        ByteData.decodeFromBytes(this, data);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        vendor = buffer.getInt(offset);
+        product = buffer.getInt(offset + 4);
     }
 }
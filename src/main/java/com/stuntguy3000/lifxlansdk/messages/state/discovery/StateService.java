@@ -10,6 +10,8 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.discovery;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.Service;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
@@ -19,6 +21,7 @@ import lombok.ToString;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * This packet is used to tell you what services are available and the port each service is on.
@@ -41,9 +44,14 @@ public class StateService extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        service = Service.getByValue(TypeUtil.littleEndianBytesToUint8(data[0]));
+        ByteData.decodeFromBytes(this, data);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        service = Service.getByValue(buffer.get(offset) & 0xff);
 
-        port = TypeUtil.littleEndianBytesToUint32(data[1], data[2], data[3], data[4]);
+        port = buffer.getInt(offset + 1);
     }
 
     @Override
@@ -54,7 +62,7 @@ public class StateService extends Message {
             byteArrayOutputStream.write(TypeUtil.uint8ToBytesLittleEndian(service.getNumericValue()));
             byteArrayOutputStream.write(TypeUtil.uint32ToBytesLittleEndian(port));
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         //return byteArrayOutputStream.toByteArray();
@@ -10,12 +10,15 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.light;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 /**
  * The current visual state of the device and it's label
  * <p>
@@ -46,15 +49,18 @@ public class LightState extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        hue = TypeUtil.littleEndianBytesToUint16(data[0], data[1]);
-        saturation = TypeUtil.littleEndianBytesToUint16(data[2], data[3]);
-        brightness = TypeUtil.littleEndianBytesToUint16(data[4], data[5]);
-        kelvin = TypeUtil.littleEndianBytesToUint16(data[6], data[7]);
-        power = TypeUtil.littleEndianBytesToUint16(data[10], data[11]);
-
-        byte[] lightBytes = new byte[32];
-        System.arraycopy(data, 12, lightBytes, 0, 32);
-        label = TypeUtil.bytesToString(lightBytes);
+        ByteData.decodeFromBytes(this, data);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        hue = buffer.getShort(offset) & 0xffff;
+        saturation = buffer.getShort(offset + 2) & 0xffff;
+        brightness = buffer.getShort(offset + 4) & 0xffff;
+        kelvin = buffer.getShort(offset + 6) & 0xffff;
+        power = buffer.getShort(offset + 10) & 0xffff;
+
+        label = TypeUtil.bufferToString(buffer, offset + 12, 32);
     }
 }
 
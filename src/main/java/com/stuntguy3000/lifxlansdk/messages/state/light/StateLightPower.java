@@ -10,12 +10,14 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.light;
 
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 /**
  * This says the current power level of the device.
  * <p>
@@ -34,7 +36,12 @@ public class StateLightPower extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        level = TypeUtil.littleEndianBytesToUint16(data[0], data[1]);
+        ByteData.decodeFromBytes(this, data);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        level = buffer.getShort(offset) & 0xffff;
     }
 }
 
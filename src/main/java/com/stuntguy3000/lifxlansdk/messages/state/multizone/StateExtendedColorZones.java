@@ -11,12 +11,14 @@
 package com.stuntguy3000.lifxlansdk.messages.state.multizone;
 
 import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 /**
  * The HSBK values of the zones specified in the request
  * <p>
@@ -54,20 +56,21 @@ public class StateExtendedColorZones extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        zones_count = TypeUtil.littleEndianBytesToUint16(data[0], data[1]);
-        zone_index = TypeUtil.littleEndianBytesToUint16(data[2], data[3]);
-        color_count = TypeUtil.littleEndianBytesToUint8(data[4]);
+        ByteData.decodeFromBytes(this, data);
+    }
 
-        int colorsIndex = 0;
-        for (int dataOffset = 0; dataOffset < color_count * 8; dataOffset += 8) {
-            byte[] colorBytes = new byte[8];
-            System.arraycopy(data, 5 + dataOffset, colorBytes, 0, 8);
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        zones_count = buffer.getShort(offset) & 0xffff;
+        zone_index = buffer.getShort(offset + 2) & 0xffff;
+        color_count = buffer.get(offset + 4) & 0xff;
 
+        int colorsCount = Math.min(Math.min(color_count, colors.length), (length - 5) / 8);
+        for (int colorsIndex = 0; colorsIndex < colorsCount; colorsIndex++) {
             Color color = new Color();
-            color.decodeBytes(colorBytes);
+            color.decodeFrom(buffer, offset + 5 + colorsIndex * 8, 8);
 
             colors[colorsIndex] = color;
-            colorsIndex++;
         }
     }
 }
@@ -10,7 +10,9 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.multizone;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
@@ -19,6 +21,7 @@ import lombok.ToString;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * This represents the HSBK value of a single zone on your strip.
@@ -54,21 +57,22 @@ public class StateMultiZone extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        zones_count = TypeUtil.littleEndianBytesToUint8(data[0]);
-        zone_index = TypeUtil.littleEndianBytesToUint8(data[1]);
+        ByteData.decodeFromBytes(this, data);
+    }
 
-        int colorsIndex = 0;
-        for (int dataOffset = 0; dataOffset < 64; dataOffset += 8) {
-            byte[] colorBytes = new byte[8];
-            System.arraycopy(data, 2 + dataOffset, colorBytes, 0, 8);
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        zones_count = buffer.get(offset) & 0xff;
+        zone_index = buffer.get(offset + 1) & 0xff;
 
+        int colorsCount = Math.min(colors.length, (length - 2) / 8);
+        for (int colorsIndex = 0; colorsIndex < colorsCount; colorsIndex++) {
             Color color = new Color();
-            color.decodeBytes(colorBytes);
+            color.decodeFrom(buffer, offset + 2 + colorsIndex * 8, 8);
 
             colors[colorsIndex] = color;
-            colorsIndex++;
 
-            if ((colorsIndex + zone_index) == zones_count) {
+            if ((colorsIndex + 1 + zone_index) == zones_count) {
                 // No more color zones to process
                 break;
             }
@@ -101,7 +105,7 @@ public class StateMultiZone extends Message {
             }
 
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
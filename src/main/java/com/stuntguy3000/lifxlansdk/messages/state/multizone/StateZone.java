@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.messages.state.multizone;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
@@ -73,7 +74,7 @@ public class StateZone extends Message {
             byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(brightness));
             byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(kelvin));
         } catch (IOException ioException) {
-            ioException.printStackTrace();
+            Events.encodeError(getType(), ioException);
         }
 
         return byteArrayOutputStream.toByteArray();
@@ -11,12 +11,14 @@
 package com.stuntguy3000.lifxlansdk.messages.state.tile;
 
 import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 /**
  * The current HSBK values of the zones in a single device.
  * <p>
@@ -56,21 +58,22 @@ public class State64 extends Message {
 
     @Override
     public void decodeBytes(byte[] data) {
-        start_index = TypeUtil.littleEndianBytesToUint8(data[0]);
-        x = TypeUtil.littleEndianBytesToUint8(data[2]);
-        y = TypeUtil.littleEndianBytesToUint8(data[3]);
-        width = TypeUtil.littleEndianBytesToUint8(data[4]);
+        ByteData.decodeFromBytes(this, data);
+    }
 
-        int colorsIndex = 0;
-        for (int dataOffset = 0; dataOffset < 64; dataOffset += 8) {
-            byte[] colorBytes = new byte[8];
-            System.arraycopy(data, 5 + dataOffset, colorBytes, 0, 8);
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        start_index = buffer.get(offset) & 0xff;
+        x = buffer.get(offset + 2) & 0xff;
+        y = buffer.get(offset + 3) & 0xff;
+        width = buffer.get(offset + 4) & 0xff;
 
+        int colorsCount = Math.min(colors.length, (length - 5) / 8);
+        for (int colorsIndex = 0; colorsIndex < colorsCount; colorsIndex++) {
             Color color = new Color();
-            color.decodeBytes(colorBytes);
+            color.decodeFrom(buffer, offset + 5 + colorsIndex * 8, 8);
 
             colors[colorsIndex] = color;
-            colorsIndex++;
         }
     }
 }
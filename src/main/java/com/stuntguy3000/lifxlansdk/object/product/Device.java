@@ -10,20 +10,34 @@
 
 package com.stuntguy3000.lifxlansdk.object.product;
 
+import com.stuntguy3000.lifxlansdk.handler.DeliveryMode;
 import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
+import com.stuntguy3000.lifxlansdk.handler.Transport;
 import com.stuntguy3000.lifxlansdk.messages.get.device.*;
 import com.stuntguy3000.lifxlansdk.messages.set.device.*;
 import com.stuntguy3000.lifxlansdk.messages.state.device.*;
 import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.StateSavable;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.net.InetAddress;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Represents a LIFX Device
@@ -34,18 +48,42 @@ import java.util.UUID;
  */
 @Getter
 public class Device implements StateSavable {
+    /**
+     * The amount of requests in a row sent to the IP address which must go unanswered before it is considered stale
+     */
+    public static final int MAX_MISSED_REPLIES = 3;
+
     // Network Information
-    private final InetAddress ipAddress;
+    /**
+     * Where the device is on the network, shared with every copy of this device (for example, a {@link Light}
+     * constructed from it), so what is learnt through one copy is used by all of them
+     */
+    @Getter(AccessLevel.NONE)
+    private final NetworkState networkState;
     private final String macAddress;
-    private final int servicePort;
 
     // Device Information
-    private StateLabel stateLabel;
-    private StateLocation stateLocation;
-    private StateGroup stateGroup;
-    private StateVersion stateVersion;
+    private final InitializationPolicy initializationPolicy;
+    private volatile StateLabel stateLabel;
+    private volatile StateLocation stateLocation;
+    private volatile StateGroup stateGroup;
+    private volatile StateVersion stateVersion;
 
-    private DeviceType type;
+    private volatile Product product;
+    private volatile DeviceType type;
+
+    /**
+     * Device information currently being fetched, keyed by the State message type, so concurrent accesses share one
+     * request
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, CompletableFuture<?>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * The overall time budget for each request made to this device, or null to bound requests by their retries only
+     */
+    @Setter
+    private volatile Duration deadline = null;
 
     /**
      * Construct a new Device
@@ -55,17 +93,144 @@ public class Device implements StateSavable {
      * @param servicePort the port to communicate on
      */
     public Device(InetAddress ipAddress, String macAddress, int servicePort) {
-        this.ipAddress = ipAddress;
+        this(ipAddress, macAddress, servicePort, InitializationPolicy.EAGER);
+    }
+
+    /**
+     * Construct a new Device
+     * <p>
+     * Devices constructed with a {@link InitializationPolicy#LAZY} or {@link InitializationPolicy#NONE} policy can
+     * still be initialized later with {@link #initAsync()}, which allows many devices to be initialized concurrently.
+     *
+     * @param ipAddress            the IP address of the device (can be null if unknown)
+     * @param macAddress           the MAC address of the device
+     * @param servicePort          the port to communicate on
+     * @param initializationPolicy when device information is fetched
+     */
+    public Device(InetAddress ipAddress, String macAddress, int servicePort, InitializationPolicy initializationPolicy) {
+        this.networkState = new NetworkState(ipAddress, servicePort);
         this.macAddress = macAddress;
-        this.servicePort = servicePort;
+        this.initializationPolicy = initializationPolicy;
 
         // The device initialization only occurs when we have an IP address, meaning actual communication has occupied
         // and the device object reflects a real-world device and not a hypothetical one
-        if (ipAddress != null) {
+        if (initializationPolicy == InitializationPolicy.EAGER && ipAddress != null) {
             init();
         }
     }
 
+    /**
+     * Construct a new Device from previously fetched device information, for example from a device cache
+     * <p>
+     * The device is {@link InitializationPolicy#LAZY}, so any missing device information is fetched on first access.
+     *
+     * @param ipAddress     the IP address of the device (can be null if unknown)
+     * @param macAddress    the MAC address of the device
+     * @param servicePort   the port to communicate on
+     * @param stateLabel    the device label (or null if unknown)
+     * @param stateLocation the device location (or null if unknown)
+     * @param stateGroup    the device group (or null if unknown)
+     * @param stateVersion  the device version (or null if unknown)
+     */
+    public Device(InetAddress ipAddress, String macAddress, int servicePort, StateLabel stateLabel, StateLocation stateLocation, StateGroup stateGroup, StateVersion stateVersion) {
+        this(ipAddress, macAddress, servicePort, InitializationPolicy.LAZY);
+
+        this.stateLabel = stateLabel;
+        this.stateLocation = stateLocation;
+        this.stateGroup = stateGroup;
+        if (stateVersion != null) {
+            updateVersion(stateVersion);
+        }
+    }
+
+    /**
+     * Construct a new Device as a copy of another, including its pre-fetched device information
+     * <p>
+     * The copy shares the network information of the device it copies (see {@link #setIpAddress(InetAddress)}).
+     *
+     * @param device the device to copy
+     */
+    protected Device(Device device) {
+        this.networkState = device.networkState;
+        this.macAddress = device.getMacAddress();
+        this.initializationPolicy = device.getInitializationPolicy();
+
+        // Copy only what has been fetched already, lazy devices stay lazy
+        this.stateLabel = device.stateLabel;
+        this.stateLocation = device.stateLocation;
+        this.stateGroup = device.stateGroup;
+        this.stateVersion = device.stateVersion;
+        this.product = device.product;
+        this.type = device.type;
+        this.deadline = device.getDeadline();
+    }
+
+    /**
+     * Get the IP address of the device
+     *
+     * @return the IP address (or null if unknown)
+     */
+    public InetAddress getIpAddress() {
+        return networkState.ipAddress;
+    }
+
+    /**
+     * Set the IP address of the device, which can change when the device is rediscovered (see {@link
+     * com.stuntguy3000.lifxlansdk.helper.DeviceRegistry#startRediscovery(Duration)})
+     * <p>
+     * The IP address is shared with every copy of this device.
+     *
+     * @param ipAddress the IP address
+     */
+    public void setIpAddress(InetAddress ipAddress) {
+        networkState.ipAddress = ipAddress;
+    }
+
+    /**
+     * Get the port to communicate on
+     *
+     * @return the service port
+     */
+    public int getServicePort() {
+        return networkState.servicePort;
+    }
+
+    /**
+     * Set the port to communicate on
+     * <p>
+     * The port is shared with every copy of this device.
+     *
+     * @param servicePort the service port
+     */
+    public void setServicePort(int servicePort) {
+        networkState.servicePort = servicePort;
+    }
+
+    /**
+     * Whether the IP address is stale, once {@link #MAX_MISSED_REPLIES} requests in a row sent to it went unanswered
+     * <p>
+     * Requests to a device with a stale IP address are broadcast (targeted at this device) until it replies again.
+     *
+     * @return true if the IP address is stale
+     */
+    public boolean isIpAddressStale() {
+        return networkState.missedReplies.get() >= MAX_MISSED_REPLIES;
+    }
+
+    /**
+     * Record that the device replied to a request, so its IP address is no longer stale
+     */
+    public void recordReply() {
+        networkState.missedReplies.set(0);
+    }
+
+    /**
+     * Record that a request sent to the IP address went unanswered
+     */
+    public void recordMissedReply() {
+        networkState.missedReplies.incrementAndGet();
+    }
+
     /**
      * For static (or mostly-static) device information, save the developer some time and pre-fetch this information.
      * <p>
@@ -74,80 +239,251 @@ public class Device implements StateSavable {
      * Specific fetch functions exist for these data fields if they must be up-to-date.
      */
     private void init() {
-        // Get Label
-        List<Packet> packetsLabel = PacketHandler.sendMessage(new GetLabel(), this);
-        stateLabel = (StateLabel) packetsLabel.get(0).getMessage();
+        initAsync().join();
+    }
 
-        // Get Location
-        List<Packet> packetsLocation = PacketHandler.sendMessage(new GetLocation(), this);
-        stateLocation = (StateLocation) packetsLocation.get(0).getMessage();
+    /**
+     * Pre-fetch static (or mostly-static) device information asynchronously, see {@link #init()}
+     * <p>
+     * The label, location, group and version are all requested at once.
+     *
+     * @return a future completed once all device information has been fetched
+     */
+    public CompletableFuture<Void> initAsync() {
+        return CompletableFuture.allOf(getStateLabelAsync(), getStateLocationAsync(), getStateGroupAsync(), getStateVersionAsync());
+    }
 
-        // Get Group
-        List<Packet> packetsGroup = PacketHandler.sendMessage(new GetGroup(), this);
-        stateGroup = (StateGroup) packetsGroup.get(0).getMessage();
+    /**
+     * Fetch a piece of device information unless it is already known
+     * <p>
+     * Concurrent calls for the same piece of information share a single request.
+     *
+     * @param type    the State message type, identifying the piece of information
+     * @param cached  the currently known information, or null if it is unknown
+     * @param fetcher fetches (and caches) the information
+     * @param <T>     the State message type
+     *
+     * @return a future completed with the information
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Message> CompletableFuture<T> loadAsync(Class<T> type, T cached, Supplier<CompletableFuture<T>> fetcher) {
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
 
-        // Get Device Version
-        List<Packet> packetsType = PacketHandler.sendMessage(new GetVersion(), this);
-        stateVersion = (StateVersion) packetsType.get(0).getMessage();
-
-        // Set Device Type
-        //  https://lan.developer.lifx.com/docs/product-registry
-        switch (stateVersion.getProduct()) {
-            case 70:
-            case 71:
-            case 89:
-  	    case 115:
-	    case 116: {
-                type = DeviceType.RELAY;
-                break;
-            }
-            case 31:
-            case 32:
-            case 38:
-	    case 118:
-	    case 119: 
-	    case 120:
-	    case 141:
-	    case 142:
-	    case 143:
-	    case 144:
-	    case 161:
-	    case 162:
-	    case 203:
-	    case 204:
-	    case 205:
-	    case 206:
-	    case 213:
-	    case 214: {
-                type = DeviceType.MULTIZONE;
-                break;
-            }
-            case 55:
-            case 57:
-            case 68:
-	    case 137:
-	    case 138:
-	    case 171:
-	    case 173:
-	    case 174:
-	    case 176:
-	    case 177:
-	    case 185:
-	    case 186:
-	    case 201:
-	    case 202:
-	    case 215:
-	    case 216:
-	    case 217:
-	    case 218: {
-                type = DeviceType.MATRIX;
-                break;
-            }
-            default: {
-                type = DeviceType.LIGHT;
-                break;
-            }
+        CompletableFuture<T> future = (CompletableFuture<T>) loading.computeIfAbsent(type, key -> fetcher.get());
+        future.whenComplete((result, throwable) -> loading.remove(type, future));
+
+        return future;
+    }
+
+    /**
+     * Get cached device information, fetching it first if this device is {@link InitializationPolicy#LAZY}
+     *
+     * @param cached the currently known information, or null if it is unknown
+     * @param loader loads the information
+     * @param <T>    the State message type
+     *
+     * @return the information, or null if it is unknown and this device is not lazy
+     */
+    private <T extends Message> T getOrLoad(T cached, Supplier<CompletableFuture<T>> loader) {
+        if (cached == null && initializationPolicy == InitializationPolicy.LAZY) {
+            return await(loader.get());
+        }
+
+        return cached;
+    }
+
+    /**
+     * Wait for device information which is being fetched on first access
+     * <p>
+     * Transport threads complete the requests being waited for, so waiting on one would never end. Code running there
+     * (for example, an action chained onto a request) must use the asynchronous getters instead.
+     *
+     * @param future the device information being fetched
+     * @param <T>    the device information type
+     *
+     * @return the device information
+     *
+     * @throws IllegalStateException if called from a transport thread
+     */
+    protected <T> T await(CompletableFuture<T> future) {
+        if (!future.isDone()) {
+            Transport.requireNotTransportThread();
         }
+
+        return future.join();
+    }
+
+    /**
+     * Get the device label only if it has already been fetched, without ever making a request
+     *
+     * @return the device label (or null)
+     */
+    public StateLabel getCachedStateLabel() {
+        return stateLabel;
+    }
+
+    /**
+     * Get the device location only if it has already been fetched, without ever making a request
+     *
+     * @return the device location (or null)
+     */
+    public StateLocation getCachedStateLocation() {
+        return stateLocation;
+    }
+
+    /**
+     * Get the device group only if it has already been fetched, without ever making a request
+     *
+     * @return the device group (or null)
+     */
+    public StateGroup getCachedStateGroup() {
+        return stateGroup;
+    }
+
+    /**
+     * Get the device version only if it has already been fetched, without ever making a request
+     *
+     * @return the device version (or null)
+     */
+    public StateVersion getCachedStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * Get the cached device label
+     * <p>
+     * Lazy devices fetch the label on first access, other devices return null if it has not been fetched.
+     *
+     * @return the device label
+     */
+    public StateLabel getStateLabel() {
+        return getOrLoad(stateLabel, this::getStateLabelAsync);
+    }
+
+    /**
+     * Get the cached device label asynchronously, fetching it if it has not been fetched yet
+     *
+     * @return a future completed with the device label
+     */
+    public CompletableFuture<StateLabel> getStateLabelAsync() {
+        return loadAsync(StateLabel.class, stateLabel, this::fetchLabelAsync);
+    }
+
+    /**
+     * Get the cached device location
+     * <p>
+     * Lazy devices fetch the location on first access, other devices return null if it has not been fetched.
+     *
+     * @return the device location
+     */
+    public StateLocation getStateLocation() {
+        return getOrLoad(stateLocation, this::getStateLocationAsync);
+    }
+
+    /**
+     * Get the cached device location asynchronously, fetching it if it has not been fetched yet
+     *
+     * @return a future completed with the device location
+     */
+    public CompletableFuture<StateLocation> getStateLocationAsync() {
+        return loadAsync(StateLocation.class, stateLocation, this::fetchLocationAsync);
+    }
+
+    /**
+     * Get the cached device group
+     * <p>
+     * Lazy devices fetch the group on first access, other devices return null if it has not been fetched.
+     *
+     * @return the device group
+     */
+    public StateGroup getStateGroup() {
+        return getOrLoad(stateGroup, this::getStateGroupAsync);
+    }
+
+    /**
+     * Get the cached device group asynchronously, fetching it if it has not been fetched yet
+     *
+     * @return a future completed with the device group
+     */
+    public CompletableFuture<StateGroup> getStateGroupAsync() {
+        return loadAsync(StateGroup.class, stateGroup, this::fetchGroupAsync);
+    }
+
+    /**
+     * Get the cached device version
+     * <p>
+     * Lazy devices fetch the version on first access, other devices return null if it has not been fetched.
+     *
+     * @return the device version
+     */
+    public StateVersion getStateVersion() {
+        return getOrLoad(stateVersion, this::getStateVersionAsync);
+    }
+
+    /**
+     * Get the cached device version asynchronously, fetching it if it has not been fetched yet
+     *
+     * @return a future completed with the device version
+     */
+    public CompletableFuture<StateVersion> getStateVersionAsync() {
+        return loadAsync(StateVersion.class, stateVersion, () -> this.<StateVersion>requestAsync(new GetVersion()).thenApply(version -> {
+            updateVersion(version);
+            return version;
+        }));
+    }
+
+    /**
+     * Get the device type, which is determined by the device version (see {@link #getStateVersion()})
+     *
+     * @return the device type
+     */
+    public DeviceType getType() {
+        getStateVersion();
+
+        return type;
+    }
+
+    /**
+     * Get the product capabilities, which are determined by the device version (see {@link #getStateVersion()})
+     *
+     * @return the product capabilities
+     */
+    public Product getProduct() {
+        getStateVersion();
+
+        return product;
+    }
+
+    /**
+     * Get the product capabilities asynchronously, fetching the device version if it has not been fetched yet
+     *
+     * @return a future completed with the product capabilities
+     */
+    public CompletableFuture<Product> getProductAsync() {
+        return getStateVersionAsync().thenApply(version -> product);
+    }
+
+    /**
+     * Get the device type asynchronously, fetching the device version if it has not been fetched yet
+     *
+     * @return a future completed with the device type
+     */
+    public CompletableFuture<DeviceType> getTypeAsync() {
+        return getStateVersionAsync().thenApply(version -> type);
+    }
+
+    /**
+     * Update the cached device version, and the product and device type it determines
+     *
+     * @param stateVersion the device version
+     */
+    private void updateVersion(StateVersion stateVersion) {
+        product = ProductRegistry.getProduct(stateVersion.getVendor(), stateVersion.getProduct());
+        type = product.getType();
+
+        this.stateVersion = stateVersion;
     }
 
     /**
@@ -165,6 +501,17 @@ public class Device implements StateSavable {
         return stateLabel;
     }
 
+    /**
+     * Fetches the device's label (and updates local cache) asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     *
+     * @see #fetchLabel()
+     */
+    public CompletableFuture<StateLabel> fetchLabelAsync() {
+        return this.<StateLabel>requestAsync(new GetLabel()).thenApply(label -> stateLabel = label);
+    }
+
     /**
      * Fetches the device's location (and updates local cache)
      * <p>
@@ -180,6 +527,17 @@ public class Device implements StateSavable {
         return stateLocation;
     }
 
+    /**
+     * Fetches the device's location (and updates local cache) asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     *
+     * @see #fetchLocation()
+     */
+    public CompletableFuture<StateLocation> fetchLocationAsync() {
+        return this.<StateLocation>requestAsync(new GetLocation()).thenApply(location -> stateLocation = location);
+    }
+
     /**
      * Fetches the device's group (and updates local cache)
      * <p>
@@ -195,13 +553,24 @@ public class Device implements StateSavable {
         return stateGroup;
     }
 
+    /**
+     * Fetches the device's group (and updates local cache) asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     *
+     * @see #fetchGroup()
+     */
+    public CompletableFuture<StateGroup> fetchGroupAsync() {
+        return this.<StateGroup>requestAsync(new GetGroup()).thenApply(group -> stateGroup = group);
+    }
+
     /**
      * A special helper function to streamline accessing the cached label of this device
      *
      * @return the label of the device
      */
     public String getLabel() {
-        return stateLabel.getLabel();
+        return getStateLabel().getLabel();
     }
 
     /**
@@ -217,6 +586,15 @@ public class Device implements StateSavable {
         return (StateHostFirmware) packets.get(0).getMessage();
     }
 
+    /**
+     * Get Host Firmware asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateHostFirmware> getHostFirmwareAsync() {
+        return requestAsync(new GetHostFirmware());
+    }
+
     /**
      * Get WiFi Info
      * <p>
@@ -230,6 +608,15 @@ public class Device implements StateSavable {
         return (StateWifiInfo) packets.get(0).getMessage();
     }
 
+    /**
+     * Get WiFi Info asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateWifiInfo> getWifiInfoAsync() {
+        return requestAsync(new GetWifiInfo());
+    }
+
     /**
      * Get WiFi Firmware
      * <p>
@@ -243,6 +630,15 @@ public class Device implements StateSavable {
         return (StateWifiFirmware) packets.get(0).getMessage();
     }
 
+    /**
+     * Get WiFi Firmware asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateWifiFirmware> getWifiFirmwareAsync() {
+        return requestAsync(new GetWifiFirmware());
+    }
+
     /**
      * Get device power
      * <p>
@@ -262,7 +658,18 @@ public class Device implements StateSavable {
      * @param powered true if the device is powered
      */
     public void setPower(boolean powered) {
-        PacketHandler.sendMessage(new SetPower(powered ? 65535 : 0), this);
+        send(new SetPower(powered ? 65535 : 0), true);
+    }
+
+    /**
+     * Set the power state of the device asynchronously
+     *
+     * @param powered true if the device is powered
+     *
+     * @return a future completed once the device has replied (or all retries are used)
+     */
+    public CompletableFuture<Void> setPowerAsync(boolean powered) {
+        return sendAsync(new SetPower(powered ? 65535 : 0), true);
     }
 
     /**
@@ -276,6 +683,15 @@ public class Device implements StateSavable {
         return getPower().getLevel() > 0;
     }
 
+    /**
+     * Returns if the device is powered asynchronously
+     *
+     * @return a future completed with true if the device is powered
+     */
+    public CompletableFuture<Boolean> isPoweredAsync() {
+        return this.<StatePower>requestAsync(new GetPower()).thenApply(statePower -> statePower.getLevel() > 0);
+    }
+
     /**
      * Get device information
      * <p>
@@ -289,6 +705,15 @@ public class Device implements StateSavable {
         return (StateInfo) packets.get(0).getMessage();
     }
 
+    /**
+     * Get device information asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateInfo> getInfoAsync() {
+        return requestAsync(new GetInfo());
+    }
+
     /**
      * Echo request
      *
@@ -302,6 +727,17 @@ public class Device implements StateSavable {
         return (EchoResponse) packets.get(0).getMessage();
     }
 
+    /**
+     * Echo request asynchronously
+     *
+     * @param message the message to be echoed by the device
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<EchoResponse> echoRequestAsync(String message) {
+        return requestAsync(new EchoRequest(message));
+    }
+
     /**
      * Set the label of the device
      *
@@ -319,7 +755,27 @@ public class Device implements StateSavable {
      * Reboot the device
      */
     public void reboot() {
-        PacketHandler.sendMessage(new SetReboot(), this);
+        send(new SetReboot(), true);
+    }
+
+    /**
+     * Set the label of the device asynchronously
+     *
+     * @param label the desired label
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateLabel> setLabelAsync(String label) {
+        return requestAsync(new SetLabel(label));
+    }
+
+    /**
+     * Reboot the device asynchronously
+     *
+     * @return a future completed once the device has replied (or all retries are used)
+     */
+    public CompletableFuture<Void> rebootAsync() {
+        return sendAsync(new SetReboot(), true);
     }
 
     /**
@@ -339,6 +795,18 @@ public class Device implements StateSavable {
         return (StateLocation) packets.get(0).getMessage();
     }
 
+    /**
+     * Set the location of the device asynchronously
+     *
+     * @param location the UUID id of the location
+     * @param label    the label of the location
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateLocation> setLocationAsync(UUID location, String label) {
+        return requestAsync(new SetLocation(location, label, Clock.systemDefaultZone().instant().getNano()));
+    }
+
     /**
      * Set the group of the device
      *
@@ -355,4 +823,86 @@ public class Device implements StateSavable {
 
         return (StateGroup) packets.get(0).getMessage();
     }
+
+    /**
+     * Set the group of the device asynchronously
+     *
+     * @param group the UUID id of the group
+     * @param label the label of the group
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateGroup> setGroupAsync(UUID group, String label) {
+        return requestAsync(new SetGroup(group, label, Clock.systemDefaultZone().instant().getNano()));
+    }
+
+    /**
+     * Send a message to this device asynchronously, and complete with the message of the first reply
+     *
+     * @param message the message to send
+     * @param <T>     the expected reply message type
+     *
+     * @return a future completed with the reply, or completed exceptionally if no reply was received
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends Message> CompletableFuture<T> requestAsync(Message message) {
+        return PacketHandler.sendMessageAsync(message, this).thenApply(packets -> {
+            if (packets.isEmpty()) {
+                throw new CompletionException(new TimeoutException("No reply received from " + macAddress));
+            }
+
+            return (T) packets.get(0).getMessage();
+        });
+    }
+
+    /**
+     * Send a message to this device, discarding any reply
+     *
+     * @param message    the message to send
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     */
+    protected void send(Message message, boolean awaitReply) {
+        sendAsync(message, awaitReply).join();
+    }
+
+    /**
+     * Send a message to this device asynchronously, discarding any reply
+     *
+     * @param message    the message to send
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     *
+     * @return a future completed once the message is sent (and acknowledged, or all retries are used)
+     */
+    protected CompletableFuture<Void> sendAsync(Message message, boolean awaitReply) {
+        return sendAsync(message, awaitReply ? DeliveryMode.ACKNOWLEDGEMENT : DeliveryMode.NONE);
+    }
+
+    /**
+     * Send a message to this device asynchronously, discarding any reply
+     *
+     * @param message      the message to send
+     * @param deliveryMode how delivery of the message is confirmed
+     *
+     * @return a future completed once the message is sent (and any reply received, or all retries are used)
+     */
+    protected CompletableFuture<Void> sendAsync(Message message, DeliveryMode deliveryMode) {
+        return PacketHandler.sendMessageAsync(message, this, deliveryMode).thenApply(packets -> null);
+    }
+
+    /**
+     * The network information of a device, shared between copies of it
+     */
+    private static class NetworkState {
+        private volatile InetAddress ipAddress;
+        private volatile int servicePort;
+        /**
+         * The amount of requests in a row sent to the IP address which went unanswered
+         */
+        private final AtomicInteger missedReplies = new AtomicInteger();
+
+        NetworkState(InetAddress ipAddress, int servicePort) {
+            this.ipAddress = ipAddress;
+            this.servicePort = servicePort;
+        }
+    }
 }
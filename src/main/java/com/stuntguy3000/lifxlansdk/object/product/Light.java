@@ -21,6 +21,7 @@ import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
 
 import java.net.InetAddress;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a LIFX Light
@@ -49,7 +50,7 @@ public class Light extends Device {
      * @param device the generic device representing the light
      */
     public Light(Device device) {
-        super(device.getIpAddress(), device.getMacAddress(), device.getServicePort());
+        super(device);
     }
 
     /**
@@ -63,6 +64,15 @@ public class Light extends Device {
         return (LightState) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the current color of the light asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<LightState> getColorAsync() {
+        return requestAsync(new GetColor());
+    }
+
     /**
      * Gets the current HEV cycle of the light
      *
@@ -74,6 +84,15 @@ public class Light extends Device {
         return (StateHevCycle) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the current HEV cycle of the light asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateHevCycle> getHevCycleAsync() {
+        return requestAsync(new GetHevCycle());
+    }
+
     /**
      * Gets the HEV cycle configuration for the light
      *
@@ -85,6 +104,15 @@ public class Light extends Device {
         return (StateHevCycleConfiguration) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the HEV cycle configuration for the light asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateHevCycleConfiguration> getHevCycleConfigurationAsync() {
+        return requestAsync(new GetHevCycleConfiguration());
+    }
+
     /**
      * Gets the infrared status for the light
      *
@@ -96,6 +124,15 @@ public class Light extends Device {
         return (StateInfrared) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the infrared status for the light asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateInfrared> getInfraredAsync() {
+        return requestAsync(new GetInfrared());
+    }
+
     /**
      * Gets the last HEV cycle's result for the light
      *
@@ -107,6 +144,15 @@ public class Light extends Device {
         return (StateLastHevCycleResult) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the last HEV cycle's result for the light asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateLastHevCycleResult> getLastHevCycleResultAsync() {
+        return requestAsync(new GetLastHevCycleResult());
+    }
+
     /**
      * Gets the current power level of the light
      *
@@ -118,15 +164,37 @@ public class Light extends Device {
         return (StateLightPower) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the current power level of the light asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateLightPower> getLightPowerAsync() {
+        return requestAsync(new GetLightPower());
+    }
+
     /**
      * Set the color of the light
      *
      * @param color      the desired color
      * @param duration   the duration (in milliseconds) it takes to make this change
-     * @param awaitReply true to await a reply, false to just send a single packet with no acknowledgement
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
      */
     public void setColor(Color color, int duration, boolean awaitReply) {
-        PacketHandler.sendMessage(new SetColor(color.getHue(), color.getSaturation(), color.getBrightness(), color.getKelvin(), duration), this, awaitReply);
+        send(new SetColor(color.getHue(), color.getSaturation(), color.getBrightness(), color.getKelvin(), duration), awaitReply);
+    }
+
+    /**
+     * Set the color of the light asynchronously
+     *
+     * @param color      the desired color
+     * @param duration   the duration (in milliseconds) it takes to make this change
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     *
+     * @return a future completed once the message is sent (and any reply received)
+     */
+    public CompletableFuture<Void> setColorAsync(Color color, int duration, boolean awaitReply) {
+        return sendAsync(new SetColor(color.getHue(), color.getSaturation(), color.getBrightness(), color.getKelvin(), duration), awaitReply);
     }
 
     /**
@@ -134,20 +202,45 @@ public class Light extends Device {
      *
      * @param level      the power level between 0 and 65535
      * @param duration   the duration (in milliseconds) it takes to make this change
-     * @param awaitReply true to await a reply, false to just send a single packet with no acknowledgement
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
      */
     public void setLightPower(int level, int duration, boolean awaitReply) {
-        PacketHandler.sendMessage(new SetLightPower(level, duration), this, awaitReply);
+        send(new SetLightPower(level, duration), awaitReply);
+    }
+
+    /**
+     * Set the light's power level (on or off) asynchronously
+     *
+     * @param level      the power level between 0 and 65535
+     * @param duration   the duration (in milliseconds) it takes to make this change
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     *
+     * @return a future completed once the message is sent (and any reply received)
+     */
+    public CompletableFuture<Void> setLightPowerAsync(int level, int duration, boolean awaitReply) {
+        return sendAsync(new SetLightPower(level, duration), awaitReply);
     }
 
     /**
      * Set the infrared brightness for the light
      *
      * @param powered    true for powered, false for off
-     * @param awaitReply true to await a reply, false to just send a single packet with no acknowledgement
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
      */
     public void setInfrared(boolean powered, boolean awaitReply) {
-        PacketHandler.sendMessage(new SetInfrared(powered ? 65535 : 0), this, awaitReply);
+        send(new SetInfrared(powered ? 65535 : 0), awaitReply);
+    }
+
+    /**
+     * Set the infrared brightness for the light asynchronously
+     *
+     * @param powered    true for powered, false for off
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     *
+     * @return a future completed once the message is sent (and any reply received)
+     */
+    public CompletableFuture<Void> setInfraredAsync(boolean powered, boolean awaitReply) {
+        return sendAsync(new SetInfrared(powered ? 65535 : 0), awaitReply);
     }
 
     @Override
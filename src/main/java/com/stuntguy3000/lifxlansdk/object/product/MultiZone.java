@@ -10,6 +10,7 @@
 
 package com.stuntguy3000.lifxlansdk.object.product;
 
+import com.stuntguy3000.lifxlansdk.event.Events;
 import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
 import com.stuntguy3000.lifxlansdk.messages.get.multizone.GetColorZones;
 import com.stuntguy3000.lifxlansdk.messages.get.multizone.GetExtendedColorZones;
@@ -25,6 +26,7 @@ import com.stuntguy3000.lifxlansdk.object.protocol.Color;
 import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.Direction;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneApplicationRequest;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneEffectType;
 import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneExtendedApplicationRequest;
@@ -36,6 +38,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a LIFX MultiZone light
@@ -54,15 +57,30 @@ public class MultiZone extends Light {
      * @param device the generic device representing the multizone
      */
     public MultiZone(Device device) {
-        super(device.getIpAddress(), device.getMacAddress(), device.getServicePort());
+        super(device);
 
         // The device initialization only occurs when we have an IP address, meaning actual communication has occupied
         // and the device object reflects a real-world device and not a hypothetical one
-        if (device.getIpAddress() != null) {
+        if (getInitializationPolicy() == InitializationPolicy.EAGER && device.getIpAddress() != null) {
             init();
         }
     }
 
+    /**
+     * Get the cached amount of zones this multizone has
+     * <p>
+     * Lazy multizones fetch this on first access, other multizones return zero if it has not been fetched.
+     *
+     * @return the amount of zones this multizone has
+     */
+    public int getZonesCount() {
+        if (zonesCount == 0 && getInitializationPolicy() == InitializationPolicy.LAZY) {
+            return await(fetchZonesCountAsync());
+        }
+
+        return zonesCount;
+    }
+
     /**
      * For static (or mostly-static) MultiZone information, save the developer some time and pre-fetch this
      * information.
@@ -72,7 +90,7 @@ public class MultiZone extends Light {
      * Specific fetch functions exist for these data fields if they must be up-to-date.
      */
     private void init() {
-        zonesCount = getExtendedColorZones().getZones_count();
+        fetchZonesCount();
     }
 
     /**
@@ -84,9 +102,37 @@ public class MultiZone extends Light {
      * @return the amount of zones this multizone has
      */
     public int fetchZonesCount() {
-        zonesCount = getExtendedColorZones().getZones_count();
+        return fetchZonesCountAsync().join();
+    }
 
-        return zonesCount;
+    /**
+     * Fetches the MultiZones's zonesCount (and updates local cache) asynchronously
+     * <p>
+     * Products without extended multizone support (see {@link Product#isExtendedMultizone()}) ignore {@link
+     * GetExtendedColorZones}, so they are asked for a single zone instead, which also carries the amount of zones.
+     * The product is looked up first, fetching the device version if it has not been fetched yet.
+     *
+     * @return a future completed with the amount of zones this multizone has
+     */
+    // GetColorZones is deprecated in favour of GetExtendedColorZones, but it is the only way to ask a product without
+    // extended multizone support for its amount of zones
+    @SuppressWarnings("deprecation")
+    public CompletableFuture<Integer> fetchZonesCountAsync() {
+        return getProductAsync().thenCompose(product -> {
+            if (product == null || product.isExtendedMultizone()) {
+                return getExtendedColorZonesAsync().thenApply(stateExtendedColorZones -> zonesCount = stateExtendedColorZones.getZones_count());
+            }
+
+            return this.<Message>requestAsync(new GetColorZones(0, 0)).thenApply(message -> {
+                if (message instanceof StateMultiZone) {
+                    zonesCount = ((StateMultiZone) message).getZones_count();
+                } else {
+                    zonesCount = ((StateZone) message).getZones_count();
+                }
+
+                return zonesCount;
+            });
+        });
     }
 
     /**
@@ -117,6 +163,31 @@ public class MultiZone extends Light {
         return messages;
     }
 
+    /**
+     * Returns all color zones specified between two indexes asynchronously
+     *
+     * @param start_index the index to start at (inclusive)
+     * @param end_index   the index to end at (inclusive)
+     *
+     * @return a future completed with the response packet objects for this request
+     */
+    @Deprecated
+    public CompletableFuture<List<Message>> getColorZonesAsync(int start_index, int end_index) {
+        return PacketHandler.sendMessageAsync(new GetColorZones(start_index, end_index), this, true, 0).thenApply(packets -> {
+            List<Message> messages = new ArrayList<>();
+
+            for (Packet packet : packets) {
+                Message message = packet.getMessage();
+
+                if (message instanceof StateZone || message instanceof StateMultiZone) {
+                    messages.add(message);
+                }
+            }
+
+            return messages;
+        });
+    }
+
     /**
      * Gets the current multizone effect
      *
@@ -128,6 +199,15 @@ public class MultiZone extends Light {
         return (StateMultiZoneEffect) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the current multizone effect asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateMultiZoneEffect> getMultiZoneEffectAsync() {
+        return requestAsync(new GetMultiZoneEffect());
+    }
+
     /**
      * Gets the current extended color zones for the multizone
      *
@@ -139,6 +219,15 @@ public class MultiZone extends Light {
         return (StateExtendedColorZones) packets.get(0).getMessage();
     }
 
+    /**
+     * Gets the current extended color zones for the multizone asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateExtendedColorZones> getExtendedColorZonesAsync() {
+        return requestAsync(new GetExtendedColorZones());
+    }
+
     /**
      * Sets zones between two indexes to a particular color
      *
@@ -146,10 +235,25 @@ public class MultiZone extends Light {
      * @param end_index   the index to end at (inclusive)
      * @param color       the desired color
      * @param duration    the duration (in milliseconds) it takes to make this change
-     * @param awaitReply  true to await a reply, false to just send a single packet with no acknowledgement
+     * @param awaitReply  true to await an acknowledgement, false to just send a single packet with no acknowledgement
      */
     public void setColorZones(int start_index, int end_index, Color color, int duration, boolean awaitReply) {
-        PacketHandler.sendMessage(new SetColorZones(start_index, end_index, color.getHue(), color.getSaturation(), color.getBrightness(), color.getKelvin(), duration, MultiZoneApplicationRequest.APPLY), this, awaitReply);
+        send(new SetColorZones(start_index, end_index, color.getHue(), color.getSaturation(), color.getBrightness(), color.getKelvin(), duration, MultiZoneApplicationRequest.APPLY), awaitReply);
+    }
+
+    /**
+     * Sets zones between two indexes to a particular color asynchronously
+     *
+     * @param start_index the index to start at (inclusive)
+     * @param end_index   the index to end at (inclusive)
+     * @param color       the desired color
+     * @param duration    the duration (in milliseconds) it takes to make this change
+     * @param awaitReply  true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     *
+     * @return a future completed once the message is sent (and any reply received)
+     */
+    public CompletableFuture<Void> setColorZonesAsync(int start_index, int end_index, Color color, int duration, boolean awaitReply) {
+        return sendAsync(new SetColorZones(start_index, end_index, color.getHue(), color.getSaturation(), color.getBrightness(), color.getKelvin(), duration, MultiZoneApplicationRequest.APPLY), awaitReply);
     }
 
     /**
@@ -157,20 +261,45 @@ public class MultiZone extends Light {
      *
      * @param duration   the duration (in milliseconds) it takes to make this change
      * @param zone_index the index to start at (usually 0)
-     * @param awaitReply true to await a reply, false to just send a single packet with no acknowledgement
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
      * @param colors     the desired colours, in order
      */
     public void setExtendedColorZones(int duration, int zone_index, boolean awaitReply, Color... colors) {
-        PacketHandler.sendMessage(new SetExtendedColorZones(duration, MultiZoneExtendedApplicationRequest.APPLY, zone_index, colors.length, colors), this, awaitReply);
+        send(new SetExtendedColorZones(duration, MultiZoneExtendedApplicationRequest.APPLY, zone_index, colors.length, colors), awaitReply);
+    }
+
+    /**
+     * Sets the zones on a multizone to each item in array (one color per zone) asynchronously
+     *
+     * @param duration   the duration (in milliseconds) it takes to make this change
+     * @param zone_index the index to start at (usually 0)
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     * @param colors     the desired colours, in order
+     *
+     * @return a future completed once the message is sent (and any reply received)
+     */
+    public CompletableFuture<Void> setExtendedColorZonesAsync(int duration, int zone_index, boolean awaitReply, Color... colors) {
+        return sendAsync(new SetExtendedColorZones(duration, MultiZoneExtendedApplicationRequest.APPLY, zone_index, colors.length, colors), awaitReply);
     }
 
     /**
      * Stops any active multizone effect
      *
-     * @param awaitReply true to await a reply, false to just send a single packet with no acknowledgement
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
      */
     public void stopMultiZoneEffect(boolean awaitReply) {
-        PacketHandler.sendMessage(new SetMultiZoneEffect(new Random().nextInt(), MultiZoneEffectType.OFF, 0, 0, new byte[32]), this, awaitReply);
+        send(new SetMultiZoneEffect(new Random().nextInt(), MultiZoneEffectType.OFF, 0, 0, new byte[32]), awaitReply);
+    }
+
+    /**
+     * Stops any active multizone effect asynchronously
+     *
+     * @param awaitReply true to await an acknowledgement, false to just send a single packet with no acknowledgement
+     *
+     * @return a future completed once the message is sent (and any reply received)
+     */
+    public CompletableFuture<Void> stopMultiZoneEffectAsync(boolean awaitReply) {
+        return sendAsync(new SetMultiZoneEffect(new Random().nextInt(), MultiZoneEffectType.OFF, 0, 0, new byte[32]), awaitReply);
     }
 
     /**
@@ -183,7 +312,32 @@ public class MultiZone extends Light {
      * @return the response packet object for this request
      */
     public StateMultiZoneEffect runMultiZoneEffectMove(int speed, long duration, Direction direction) {
-        // Build Parameters
+        List<Packet> packets = PacketHandler.sendMessage(new SetMultiZoneEffect(new Random().nextInt(), MultiZoneEffectType.MOVE, speed, duration, buildMoveParameters(direction)), this);
+
+        return (StateMultiZoneEffect) packets.get(0).getMessage();
+    }
+
+    /**
+     * Run the multizone MOVE effect asynchronously
+     *
+     * @param speed     the time it takes for one cycle of the effect in milliseconds
+     * @param duration  the time the effect will run for in nanoseconds
+     * @param direction the direction to move the zones in
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateMultiZoneEffect> runMultiZoneEffectMoveAsync(int speed, long duration, Direction direction) {
+        return requestAsync(new SetMultiZoneEffect(new Random().nextInt(), MultiZoneEffectType.MOVE, speed, duration, buildMoveParameters(direction)));
+    }
+
+    /**
+     * Build the parameters of the multizone MOVE effect
+     *
+     * @param direction the direction to move the zones in
+     *
+     * @return the effect parameters
+     */
+    private byte[] buildMoveParameters(Direction direction) {
         ByteArrayOutputStream parameters = new ByteArrayOutputStream(64);
 
         for (int i = 0; i < 4; i++) {
@@ -193,17 +347,14 @@ public class MultiZone extends Light {
         try {
             parameters.write(TypeUtil.uint32ToBytesLittleEndian(direction.getNumericValue()));
         } catch (IOException e) {
-            e.printStackTrace();
+            Events.error("Failed to encode move effect parameters", e);
         }
 
         for (int i = 0; i < 8; i++) {
             parameters.write(0);
         }
 
-        // Send Packet
-        List<Packet> packets = PacketHandler.sendMessage(new SetMultiZoneEffect(new Random().nextInt(), MultiZoneEffectType.MOVE, speed, duration, parameters.toByteArray()), this);
-
-        return (StateMultiZoneEffect) packets.get(0).getMessage();
+        return parameters.toByteArray();
     }
 
     @Override
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.object.product;
+
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The capabilities of a LIFX product, as listed in the bundled products table (see {@link ProductRegistry})
+ * <p>
+ * Capabilities let the SDK pick the cheapest message a product supports, rather than spending a round trip on a message
+ * the product ignores.
+ */
+@Getter
+@ToString
+public class Product {
+    /**
+     * The product id, as reported in {@link com.stuntguy3000.lifxlansdk.messages.state.device.StateVersion}
+     */
+    private final int productId;
+    private final String name;
+
+    private final boolean color;
+    private final boolean infrared;
+    private final boolean multizone;
+    /**
+     * If the product supports the extended multizone messages (such as
+     * {@link com.stuntguy3000.lifxlansdk.messages.get.multizone.GetExtendedColorZones}) on every firmware version
+     */
+    private final boolean extendedMultizone;
+    private final boolean matrix;
+    private final boolean chain;
+    private final boolean hev;
+    private final boolean relays;
+    private final boolean buttons;
+
+    /**
+     * The lowest supported kelvin (zero if the product has no light)
+     */
+    private final int minKelvin;
+    /**
+     * The highest supported kelvin (zero if the product has no light)
+     */
+    private final int maxKelvin;
+
+    /**
+     * Construct a new Product
+     *
+     * @param productId the product id
+     * @param name      the product name
+     * @param features  the product features, as named in the products table
+     * @param minKelvin the lowest supported kelvin
+     * @param maxKelvin the highest supported kelvin
+     */
+    Product(int productId, String name, Set<String> features, int minKelvin, int maxKelvin) {
+        this.productId = productId;
+        this.name = name;
+        this.color = features.contains("color");
+        this.infrared = features.contains("infrared");
+        this.multizone = features.contains("multizone");
+        this.extendedMultizone = features.contains("extended_multizone");
+        this.matrix = features.contains("matrix");
+        this.chain = features.contains("chain");
+        this.hev = features.contains("hev");
+        this.relays = features.contains("relays");
+        this.buttons = features.contains("buttons");
+        this.minKelvin = minKelvin;
+        this.maxKelvin = maxKelvin;
+    }
+
+    /**
+     * Construct a Product for an unknown product id, which is assumed to be a color light
+     *
+     * @param productId the product id
+     *
+     * @return the product
+     */
+    static Product unknown(int productId) {
+        return new Product(productId, "Unknown", Collections.singleton("color"), 2500, 9000);
+    }
+
+    /**
+     * Get the device type of this product
+     *
+     * @return the device type
+     */
+    public DeviceType getType() {
+        if (relays) {
+            return DeviceType.RELAY;
+        } else if (multizone) {
+            return DeviceType.MULTIZONE;
+        } else if (matrix) {
+            return DeviceType.MATRIX;
+        }
+
+        return DeviceType.LIGHT;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.object.product;
+
+import com.stuntguy3000.lifxlansdk.event.Events;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Looks up the capabilities of LIFX products
+ * <p>
+ * The products table is bundled as the {@value #RESOURCE} resource, and loaded once into an array indexed by product
+ * id.
+ */
+public class ProductRegistry {
+    private static final String RESOURCE = "/products.csv";
+    /**
+     * The vendor id of LIFX, the only vendor in the products table
+     */
+    private static final int LIFX_VENDOR = 1;
+
+    private static final Product[] products = load();
+
+    /**
+     * Get the capabilities of a product
+     *
+     * @param vendor    the vendor id
+     * @param productId the product id
+     *
+     * @return the product, or a color light if the product is unknown
+     */
+    public static Product getProduct(int vendor, int productId) {
+        if (vendor == LIFX_VENDOR && productId >= 0 && productId < products.length && products[productId] != null) {
+            return products[productId];
+        }
+
+        return Product.unknown(productId);
+    }
+
+    /**
+     * Load the products table
+     *
+     * @return the products, indexed by product id
+     */
+    private static Product[] load() {
+        List<Product> productList = new ArrayList<>();
+        int maxProductId = -1;
+
+        try (InputStream inputStream = ProductRegistry.class.getResourceAsStream(RESOURCE)) {
+            if (inputStream == null) {
+                throw new IOException("Missing resource " + RESOURCE);
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                // pid;name;features;min_kelvin;max_kelvin
+                String[] columns = line.split(";", -1);
+                String[] features = columns[2].split(" ");
+                Product product = new Product(Integer.parseInt(columns[0]), columns[1], new HashSet<>(Arrays.asList(features)), Integer.parseInt(columns[3]), Integer.parseInt(columns[4]));
+
+                productList.add(product);
+                maxProductId = Math.max(maxProductId, product.getProductId());
+            }
+        } catch (IOException | RuntimeException exception) {
+            // Every product will be treated as unknown
+            Events.error("Failed to load the products table", exception);
+        }
+
+        Product[] products = new Product[maxProductId + 1];
+        for (Product product : productList) {
+            products[product.getProductId()] = product;
+        }
+
+        return products;
+    }
+}
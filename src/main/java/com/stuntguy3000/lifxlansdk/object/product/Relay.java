@@ -17,6 +17,7 @@ import com.stuntguy3000.lifxlansdk.messages.state.relay.StateRPower;
 import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a LIFX Relay device
@@ -28,7 +29,7 @@ public class Relay extends Device {
      * @param device the generic device representing the relay
      */
     public Relay(Device device) {
-        super(device.getIpAddress(), device.getMacAddress(), device.getServicePort());
+        super(device);
     }
 
     /**
@@ -44,6 +45,17 @@ public class Relay extends Device {
         return (StateRPower) packets.get(0).getMessage();
     }
 
+    /**
+     * Returns the power level of a relay item at a particular index asynchronously
+     *
+     * @param relay_index the specified object's index
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateRPower> getRPowerAsync(int relay_index) {
+        return requestAsync(new GetRPower(relay_index));
+    }
+
     /**
      * Sets the relay power of an item at a particular index
      *
@@ -53,4 +65,16 @@ public class Relay extends Device {
     public void setRPower(int relay_index, boolean powered) {
         PacketHandler.sendMessage(new SetRPower(relay_index, powered ? 65535 : 0), this, false);
     }
+
+    /**
+     * Sets the relay power of an item at a particular index asynchronously
+     *
+     * @param relay_index the specified object's index
+     * @param powered     true if the relay should be powered
+     *
+     * @return a future completed once the message is sent
+     */
+    public CompletableFuture<Void> setRPowerAsync(int relay_index, boolean powered) {
+        return sendAsync(new SetRPower(relay_index, powered ? 65535 : 0), false);
+    }
 }
@@ -28,6 +28,7 @@ import com.stuntguy3000.lifxlansdk.object.protocol.enums.TileEffectType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a LIFX Tile (or Candle - aka, matrix) light
@@ -42,7 +43,7 @@ public class Tile extends Light {
      * @param device the generic device representing the tile
      */
     public Tile(Device device) {
-        super(device.getIpAddress(), device.getMacAddress(), device.getServicePort());
+        super(device);
     }
 
     /**
@@ -56,6 +57,15 @@ public class Tile extends Light {
         return (StateDeviceChain) packets.get(0).getMessage();
     }
 
+    /**
+     * Get device chain information asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateDeviceChain> getDeviceChainAsync() {
+        return requestAsync(new GetDeviceChain());
+    }
+
     /**
      * Get colour values for the zones of devices in the chain+
      *
@@ -83,6 +93,33 @@ public class Tile extends Light {
         return messages;
     }
 
+    /**
+     * Get colour values for the zones of devices in the chain asynchronously
+     *
+     * @param tile_index the first item in the chain you want zones
+     * @param length     the number of tiles after tile_index you want colour values from
+     * @param x          the x value to start from, likely 0
+     * @param y          the y value to start from, likely 0
+     * @param width      the width of each item in the chain (8 fort the tile, 5 for the candle)
+     *
+     * @return a future completed with the response packet objects for this request
+     */
+    public CompletableFuture<List<State64>> get64Async(int tile_index, int length, int x, int y, int width) {
+        return PacketHandler.sendMessageAsync(new Get64(tile_index, length, x, y, width), this, true, length).thenApply(packets -> {
+            List<State64> messages = new ArrayList<>();
+
+            for (Packet packet : packets) {
+                Message message = packet.getMessage();
+
+                if (message instanceof State64) {
+                    messages.add((State64) message);
+                }
+            }
+
+            return messages;
+        });
+    }
+
     /**
      * Get the tile's current effect
      *
@@ -94,6 +131,15 @@ public class Tile extends Light {
         return (StateTileEffect) packets.get(0).getMessage();
     }
 
+    /**
+     * Get the tile's current effect asynchronously
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateTileEffect> getTileEffectAsync() {
+        return requestAsync(new GetTileEffect());
+    }
+
     /**
      * Set the user's position
      *
@@ -105,6 +151,19 @@ public class Tile extends Light {
         PacketHandler.sendMessage(new SetUserPosition(tile_index, user_x, user_y), this, false);
     }
 
+    /**
+     * Set the user's position asynchronously
+     *
+     * @param tile_index the tile to change
+     * @param user_x     the user's x position
+     * @param user_y     the user's y position
+     *
+     * @return a future completed once the message is sent
+     */
+    public CompletableFuture<Void> setUserPositionAsync(int tile_index, float user_x, float user_y) {
+        return sendAsync(new SetUserPosition(tile_index, user_x, user_y), false);
+    }
+
     /**
      * Set the colour zones for the tile
      *
@@ -121,6 +180,24 @@ public class Tile extends Light {
         PacketHandler.sendMessage(new Set64(tile_index, length, x, y, width, duration, colors), this, false);
     }
 
+    /**
+     * Set the colour zones for the tile asynchronously
+     *
+     * @param tile_index the starting tile to change
+     * @param length     the number of devices in the chain to change starting from the index
+     * @param x          the x co-ordinate to start applying colors from
+     * @param y          the y co-ordinate to start applying colors from
+     * @param width      the width of the square you're applying colors to - this should be 8 for the LIFX Tile and 5
+     *                   for the LIFX Candle
+     * @param duration   the time it will take to transition to new state in milliseconds.
+     * @param colors     the colours to apply to each zone
+     *
+     * @return a future completed once the message is sent
+     */
+    public CompletableFuture<Void> set64Async(int tile_index, int length, int x, int y, int width, int duration, Color... colors) {
+        return sendAsync(new Set64(tile_index, length, x, y, width, duration, colors), false);
+    }
+
     /**
      * Set the tile effect
      *
@@ -137,11 +214,34 @@ public class Tile extends Light {
         return (StateTileEffect) packets.get(0).getMessage();
     }
 
+    /**
+     * Set the tile effect asynchronously
+     *
+     * @param tileEffectType the type of effect
+     * @param speed          the time it takes for one cycle of the effect in milliseconds
+     * @param duration       the time the effect will run for in nanoseconds
+     * @param palette        the colours in the effect
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateTileEffect> setTileEffectAsync(TileEffectType tileEffectType, int speed, long duration, Color... palette) {
+        return requestAsync(new SetTileEffect(new Random().nextInt(), tileEffectType, speed, duration, new byte[32], palette.length, palette));
+    }
+
     /**
      * Stops any active tile effect
      */
     public void stopTileEffect() {
-        PacketHandler.sendMessage(new SetTileEffect(new Random().nextInt(), TileEffectType.OFF, 0, 0, new byte[32], 0, new Color[16]), this);
+        send(new SetTileEffect(new Random().nextInt(), TileEffectType.OFF, 0, 0, new byte[32], 0, new Color[16]), true);
+    }
+
+    /**
+     * Stops any active tile effect asynchronously
+     *
+     * @return a future completed once the device has replied (or all retries are used)
+     */
+    public CompletableFuture<Void> stopTileEffectAsync() {
+        return sendAsync(new SetTileEffect(new Random().nextInt(), TileEffectType.OFF, 0, 0, new byte[32], 0, new Color[16]), true);
     }
 
     /**
@@ -156,6 +256,18 @@ public class Tile extends Light {
         return setTileEffect(TileEffectType.FLAME, speed, duration, new Color[16]);
     }
 
+    /**
+     * Run the tile FLAME effect asynchronously
+     *
+     * @param speed    the time it takes for one cycle of the effect in milliseconds
+     * @param duration the time the effect will run for in nanoseconds
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateTileEffect> runTileEffectFlameAsync(int speed, long duration) {
+        return setTileEffectAsync(TileEffectType.FLAME, speed, duration, new Color[16]);
+    }
+
     /**
      * Run the tile MORPH effect
      *
@@ -168,4 +280,17 @@ public class Tile extends Light {
     public StateTileEffect runTileEffectMorph(int speed, long duration, Color... color) {
         return setTileEffect(TileEffectType.MORPH, speed, duration, color);
     }
+
+    /**
+     * Run the tile MORPH effect asynchronously
+     *
+     * @param speed    the time it takes for one cycle of the effect in milliseconds
+     * @param duration the time the effect will run for in nanoseconds
+     * @param color    the colours to morph through
+     *
+     * @return a future completed with the response packet object for this request
+     */
+    public CompletableFuture<StateTileEffect> runTileEffectMorphAsync(int speed, long duration, Color... color) {
+        return setTileEffectAsync(TileEffectType.MORPH, speed, duration, color);
+    }
 }
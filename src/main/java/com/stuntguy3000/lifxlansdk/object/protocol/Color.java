@@ -11,11 +11,9 @@
 package com.stuntguy3000.lifxlansdk.object.protocol;
 
 import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.ByteData;
-import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.*;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -129,26 +127,28 @@ public class Color implements ByteData {
 
     @Override
     public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-        try {
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(hue));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(saturation));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(brightness));
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian(kelvin));
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
-        }
+        return ByteData.encodeToBytes(this, 8);
+    }
 
-        return byteArrayOutputStream.toByteArray();
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.putShort((short) hue);
+        buffer.putShort((short) saturation);
+        buffer.putShort((short) brightness);
+        buffer.putShort((short) kelvin);
     }
 
     @Override
     public void decodeBytes(byte[] data) {
-        hue = TypeUtil.littleEndianBytesToUint16(data[0], data[1]);
-        saturation = TypeUtil.littleEndianBytesToUint16(data[2], data[3]);
-        brightness = TypeUtil.littleEndianBytesToUint16(data[4], data[5]);
-        kelvin = TypeUtil.littleEndianBytesToUint16(data[6], data[7]);
+        ByteData.decodeFromBytes(this, data);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        hue = buffer.getShort(offset) & 0xffff;
+        saturation = buffer.getShort(offset + 2) & 0xffff;
+        brightness = buffer.getShort(offset + 4) & 0xffff;
+        kelvin = buffer.getShort(offset + 6) & 0xffff;
     }
 
     @Override
@@ -15,7 +15,7 @@ import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.BitSet;
 
 /**
@@ -26,6 +26,8 @@ import java.util.BitSet;
 @Getter
 @Setter
 public class FrameAddress implements ByteData {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     /**
      * 6 byte device address (MAC address) or zero (0) means all devices. The last two bytes should be 0 bytes.
      */
@@ -66,43 +68,77 @@ public class FrameAddress implements ByteData {
         ack_required = bitSet.get(1);
 
         // sequence
-        sequence = data[15];
+        sequence = (short) TypeUtil.littleEndianBytesToUint8(data[15]);
+    }
+
+    @Override
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        // target, formatted the same as decodeBytes (uppercase, colon separated)
+        char[] targetChars = new char[17];
+        for (int i = 0; i < 6; i++) {
+            int value = buffer.get(offset + i) & 0xff;
+
+            if (i > 0) {
+                targetChars[i * 3 - 1] = ':';
+            }
+
+            targetChars[i * 3] = HEX_DIGITS[value >>> 4];
+            targetChars[i * 3 + 1] = HEX_DIGITS[value & 0x0f];
+        }
+        target = new String(targetChars);
+
+        // res_required
+        // ack_required
+        byte flags = buffer.get(offset + 14);
+        res_required = (flags & 0x01) != 0;
+        ack_required = (flags & 0x02) != 0;
+
+        // sequence
+        sequence = (short) (buffer.get(offset + 15) & 0xff);
     }
 
     @Override
     public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-        try {
-            // Bytes 0 - 7 (LIFX 0-Indexed Location, Bytes 8 - 15)
-            byteArrayOutputStream.write(TypeUtil.hexToBytes(target.replace("-", "").replaceAll(":", "")));
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-
-            // Bytes 8 - 13 (LIFX 0-Indexed Location, Bytes 16 - 21)
-            //  Reserved Bytes
-            for (int i = 0; i < 6; i++) {
-                byteArrayOutputStream.write(0);
+        return ByteData.encodeToBytes(this, 16);
+    }
+
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        // Bytes 0 - 7 (LIFX 0-Indexed Location, Bytes 8 - 15)
+        //  6 byte MAC address, parsed in place to avoid allocating, then 2 zero bytes
+        int written = 0;
+        int high = -1;
+
+        for (int i = 0; i < target.length() && written < 6; i++) {
+            int digit = Character.digit(target.charAt(i), 16);
+
+            if (digit < 0) {
+                continue;
             }
 
-            // Byte 14 (LIFX 0-Indexed Location, Bytes 22)
-            //  Includes 6 Reserved Bits
-            if (!res_required && !ack_required) {
-                byteArrayOutputStream.write(0);
+            if (high < 0) {
+                high = digit;
             } else {
-                BitSet bitSet = new BitSet(8);
-                bitSet.set(0, res_required);
-                bitSet.set(1, ack_required);
-                byteArrayOutputStream.write(bitSet.toByteArray());
+                buffer.put((byte) ((high << 4) | digit));
+                high = -1;
+                written++;
             }
+        }
 
-            // Byte 15 (LIFX 0-Indexed Location, Bytes 23)
-            byte[] sequenceBytes = TypeUtil.uint16ToBytesLittleEndian(sequence);
-            byteArrayOutputStream.write(sequenceBytes[0]);
-        } catch (Exception e) {
-            e.printStackTrace();
+        for (; written < 8; written++) {
+            buffer.put((byte) 0);
         }
 
-        return byteArrayOutputStream.toByteArray();
+        // Bytes 8 - 13 (LIFX 0-Indexed Location, Bytes 16 - 21)
+        //  Reserved Bytes
+        buffer.putInt(0);
+        buffer.putShort((short) 0);
+
+        // Byte 14 (LIFX 0-Indexed Location, Bytes 22)
+        //  Includes 6 Reserved Bits
+        buffer.put((byte) ((res_required ? 0x01 : 0) | (ack_required ? 0x02 : 0)));
+
+        // Byte 15 (LIFX 0-Indexed Location, Bytes 23)
+        buffer.put((byte) sequence);
     }
 }
@@ -15,7 +15,7 @@ import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.BitSet;
 
 /**
@@ -51,6 +51,9 @@ public class FrameHeader implements ByteData {
      * <p>
      * The source identifier allows each client to provide a unique value, which will be included in the corresponding
      * field in Acknowledgement (45) and State packets the device sends back to you.
+     * <p>
+     * Packets sent through a {@link com.stuntguy3000.lifxlansdk.handler.Transport} have this replaced by the transport's
+     * own randomly chosen source.
      */
     private int source = 1337;
 
@@ -68,53 +71,35 @@ public class FrameHeader implements ByteData {
     }
 
     @Override
-    public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-        try {
-            // Bytes 0 - 1 (Size)
-            byteArrayOutputStream.write(TypeUtil.uint16ToBytesLittleEndian((short) size));
-
-            // Byte 2 (First Protocol Byte)
-            // byteArrayOutputStream.write(protocol[0]);
-            byteArrayOutputStream.write(0);
-
-            // Byte 3
-            // LIFX cram a ton of data into Byte 3, so we have to glue it all together
-            //  Byte 3:
-            //      Bit 6-7     origin
-            //      Bit 5       tagged
-            //      Bit 4       addressable
-            //      Bit 3       protocol[1] Bit 8
-            //      Bit 2       protocol[1] Bit 9
-            //      Bit 1       protocol[1] Bit 10
-            //      Bit 0       protocol[1] Bit 11
-            BitSet bitSet = new BitSet(8);
-
-            //bitSet.set(6, false); - Commented out for optimisation
-            //bitSet.set(7, false); - Commented out for optimisation
-
-            bitSet.set(5, tagged);
-            bitSet.set(4, addressable);
-
-            //bitSet.set(3, TypeUtil.getBitFromByte(protocol, 8) == 1); - Commented out for optimisation
-            //bitSet.set(3, TypeUtil.getBitFromByte(protocol, 9) == 1); - Commented out for optimisation
-            bitSet.set(2, true);
-            //bitSet.set(1, TypeUtil.getBitFromByte(protocol, 10) == 1); - Commented out for optimisation
-            //bitSet.set(0, TypeUtil.getBitFromByte(protocol, 11) == 1); - Commented out for optimisation
-
-            byteArrayOutputStream.write(bitSet.toByteArray());
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        size = buffer.getShort(offset) & 0xffff;
+        tagged = (buffer.get(offset + 3) & 0x20) != 0;
+        source = buffer.getInt(offset + 4);
+    }
 
-            // Bytes 4 - 7 (Source)
-            byte[] sourceBytes = TypeUtil.uint32ToBytesLittleEndian(source);
-            byteArrayOutputStream.write(sourceBytes[0]);
-            byteArrayOutputStream.write(sourceBytes[1]);
-            byteArrayOutputStream.write(sourceBytes[2]);
-            byteArrayOutputStream.write(sourceBytes[3]);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    @Override
+    public byte[] toBytes() {
+        return ByteData.encodeToBytes(this, 8);
+    }
 
-        return byteArrayOutputStream.toByteArray();
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        // Bytes 0 - 1 (Size)
+        buffer.putShort((short) size);
+
+        // Byte 2 (First Protocol Byte)
+        buffer.put((byte) 0);
+
+        // Byte 3
+        // LIFX cram a ton of data into Byte 3, so we have to glue it all together
+        //  Byte 3:
+        //      Bit 6-7     origin (always 0)
+        //      Bit 5       tagged
+        //      Bit 4       addressable
+        //      Bit 0-3     protocol[1] Bits 8 - 11 (1024 >> 8 = 4)
+        buffer.put((byte) ((tagged ? 0x20 : 0) | (addressable ? 0x10 : 0) | 0x04));
+
+        // Bytes 4 - 7 (Source)
+        buffer.putInt(source);
     }
 }
@@ -17,15 +17,27 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 @Getter
 @Setter
 @RequiredArgsConstructor
 @ToString
 public class Packet implements ByteData {
+    /**
+     * The size of the Frame Header, Frame Address and Protocol Header combined
+     */
+    public static final int HEADER_SIZE = 36;
+    /**
+     * The largest LIFX packet we expect to send or receive
+     * <p>
+     * LIFX Packets can get big! Biggest seen is stateDeviceChain at 918 bytes.
+     */
+    public static final int MAX_PACKET_SIZE = 1024;
+
     private final FrameHeader frameHeader;
     private final FrameAddress frameAddress;
     private final ProtocolHeader protocolHeader;
@@ -35,33 +47,48 @@ public class Packet implements ByteData {
      * This is only filled on packets that are received, not constructed pre-sent packets
      */
     private InetAddress ipAddress;
+    /**
+     * The id of the request this packet was sent for (or in reply to), set by the
+     * {@link com.stuntguy3000.lifxlansdk.handler.Transport}, see {@link com.stuntguy3000.lifxlansdk.event.Event}
+     */
+    private long correlationId;
 
     @Override
     public byte[] toBytes() {
-        byte[] frameAddressBytes = frameAddress.toBytes();
-        byte[] protocolHeaderBytes = protocolHeader.toBytes();
-        byte[] messageBytes = message.toBytes();
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+        encodeInto(buffer);
 
-        // Manipulate Frame Data if Required
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
 
-        // Calculate Message Size
-        //  A LIFX packet header is 36 bytes, plus the payload
-        frameHeader.setSize((short) (32 + messageBytes.length));
+    /**
+     * Encode the packet directly into a buffer, at the buffer's current position
+     * <p>
+     * The buffer is switched to little-endian byte order. The payload is written first so the Frame Header size is
+     * known, then the headers are written in front of it; nothing is allocated along the way.
+     *
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int start = buffer.position();
 
-        byte[] frameHeaderBytes = frameHeader.toBytes();
+        // Payload
+        buffer.position(start + HEADER_SIZE);
+        message.encodeInto(buffer);
+        int end = buffer.position();
 
-        // Bring it all together
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        // Calculate Message Size
+        //  A LIFX packet header is 36 bytes, plus the payload
+        frameHeader.setSize(end - start);
 
-        try {
-            byteArrayOutputStream.write(frameHeaderBytes);
-            byteArrayOutputStream.write(frameAddressBytes);
-            byteArrayOutputStream.write(protocolHeaderBytes);
-            byteArrayOutputStream.write(messageBytes);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        // Headers
+        buffer.position(start);
+        frameHeader.encodeInto(buffer);
+        frameAddress.encodeInto(buffer);
+        protocolHeader.encodeInto(buffer);
 
-        return byteArrayOutputStream.toByteArray();
+        buffer.position(end);
     }
 }
@@ -15,7 +15,7 @@ import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Represents a LIFX packet Frame Header
@@ -36,34 +36,26 @@ public class ProtocolHeader implements ByteData {
     }
 
     @Override
-    public byte[] toBytes() {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    public void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        type = buffer.getShort(offset + 8) & 0xffff;
+    }
 
-        try {
-            // Bytes 0 - 7 (LIFX 0-Indexed Location, Bytes 24 - 31)
-            //  Reserved Bytes
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
+    @Override
+    public byte[] toBytes() {
+        return ByteData.encodeToBytes(this, 12);
+    }
 
-            // Bytes 8 - 9 (LIFX 0-Indexed Location, Bytes 32 - 33)
-            byte[] typeBytes = TypeUtil.uint16ToBytesLittleEndian(type);
-            byteArrayOutputStream.write(typeBytes[0]);
-            byteArrayOutputStream.write(typeBytes[1]);
+    @Override
+    public void encodeInto(ByteBuffer buffer) {
+        // Bytes 0 - 7 (LIFX 0-Indexed Location, Bytes 24 - 31)
+        //  Reserved Bytes
+        buffer.putLong(0);
 
-            // Bytes 0 - 7 (LIFX 0-Indexed Location, Bytes 34 - 35)
-            //  Reserved Bytes
-            byteArrayOutputStream.write(0);
-            byteArrayOutputStream.write(0);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        // Bytes 8 - 9 (LIFX 0-Indexed Location, Bytes 32 - 33)
+        buffer.putShort((short) type);
 
-        return byteArrayOutputStream.toByteArray();
+        // Bytes 10 - 11 (LIFX 0-Indexed Location, Bytes 34 - 35)
+        //  Reserved Bytes
+        buffer.putShort((short) 0);
     }
 }
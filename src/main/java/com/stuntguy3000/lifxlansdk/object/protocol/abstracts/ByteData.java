@@ -10,6 +10,9 @@
 
 package com.stuntguy3000.lifxlansdk.object.protocol.abstracts;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * Represents an object that has an associated byte data structure and allows conversions to and from byte arrays
  * <p>
@@ -26,6 +29,18 @@ public interface ByteData {
         return new byte[0];
     }
 
+    /**
+     * Encode the object directly into a buffer, at the buffer's current position
+     * <p>
+     * The buffer must be in little-endian byte order. Objects on hot paths override this to write their fields without
+     * allocating; by default the result of {@link #toBytes()} is copied in.
+     *
+     * @param buffer the buffer to write to
+     */
+    default void encodeInto(ByteBuffer buffer) {
+        buffer.put(toBytes());
+    }
+
     /**
      * Decodes the byte array to fill object properties
      *
@@ -33,4 +48,50 @@ public interface ByteData {
      */
     default void decodeBytes(byte[] data) {
     }
+
+    /**
+     * Decodes directly from a buffer to fill object properties, using absolute offsets (the buffer's position is left
+     * untouched)
+     * <p>
+     * The buffer must be in little-endian byte order. Objects on hot paths override this to read their fields without
+     * copying; by default the bytes are copied out and passed to {@link #decodeBytes(byte[])}.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of this object's data within the buffer
+     * @param length the length of this object's data
+     */
+    default void decodeFrom(ByteBuffer buffer, int offset, int length) {
+        byte[] data = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            data[i] = buffer.get(offset + i);
+        }
+
+        decodeBytes(data);
+    }
+
+    /**
+     * Encode an object with a known, fixed length to a new byte array using {@link #encodeInto(ByteBuffer)}
+     *
+     * @param data   the object to encode
+     * @param length the encoded length of the object
+     *
+     * @return the data encoded in a byte array
+     */
+    static byte[] encodeToBytes(ByteData data, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        data.encodeInto(buffer);
+
+        return buffer.array();
+    }
+
+    /**
+     * Decode a byte array using {@link #decodeFrom(ByteBuffer, int, int)}
+     *
+     * @param data  the object to fill
+     * @param bytes the data to decode
+     */
+    static void decodeFromBytes(ByteData data, byte[] bytes) {
+        data.decodeFrom(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), 0, bytes.length);
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.object.protocol.abstracts;
+
+/**
+ * Represents a Set message whose effect is entirely replaced by a later message with the same effect sent to the same
+ * device (last write wins)
+ * <p>
+ * If a newer message supersedes one which is still waiting to be sent, the older message is dropped. Any caller
+ * awaiting a reply to the older message receives the reply to the newer one instead.
+ */
+public interface Supersedable {
+    /**
+     * Checks if this message replaces the effect of another message sent to the same device
+     * <p>
+     * By default, any message of the same type is superseded. Messages which only affect part of a device (such as a
+     * range of zones) should also compare the part they affect.
+     *
+     * @param other the older message
+     *
+     * @return true if the older message no longer needs to be sent
+     */
+    default boolean supersedes(Message other) {
+        return other != null && other.getClass() == getClass();
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.object.protocol.enums;
+
+/**
+ * When a {@link com.stuntguy3000.lifxlansdk.object.product.Device} fetches its static (or mostly-static) information
+ * (label, location, group and version)
+ */
+public enum InitializationPolicy {
+    /**
+     * Fetch all device information when the device is constructed
+     */
+    EAGER,
+    /**
+     * Fetch each piece of device information the first time it is accessed, and remember it
+     * <p>
+     * Devices which are only sent commands never fetch anything.
+     */
+    LAZY,
+    /**
+     * Never fetch device information automatically, it is only fetched when explicitly requested
+     */
+    NONE
+}
@@ -117,10 +117,95 @@ public class TypeUtil {
         return macAddress.replaceAll(".{2}(?=.)", "$0:");
     }
 
+    /**
+     * Packs a MAC address (with or without separators) into the lower 48 bits of a long, for use as a cheap map key
+     *
+     * @param macAddress the MAC address, e.g. d0:73:d5:43:47:86
+     *
+     * @return the packed MAC address
+     */
+    public static long macAddressToLong(String macAddress) {
+        long value = 0;
+        int digits = 0;
+
+        for (int i = 0; i < macAddress.length() && digits < 12; i++) {
+            int digit = Character.digit(macAddress.charAt(i), 16);
+
+            if (digit >= 0) {
+                value = (value << 4) | digit;
+                digits++;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Formats a packed MAC address (see {@link #macAddressToLong(String)}) as an uppercase, colon separated string
+     *
+     * @param macAddress the packed MAC address
+     *
+     * @return the MAC address, e.g. D0:73:D5:43:47:86
+     */
+    public static String longToMacAddress(long macAddress) {
+        StringBuilder builder = new StringBuilder(17);
+
+        for (int i = 5; i >= 0; i--) {
+            builder.append(String.format("%02X", (macAddress >>> (i * 8)) & 0xff));
+
+            if (i > 0) {
+                builder.append(':');
+            }
+        }
+
+        return builder.toString();
+    }
+
     public static String bytesToString(byte... data) {
         return new String(data, StandardCharsets.UTF_8).split("\0")[0];
     }
 
+    /**
+     * Reads a null-padded string directly from a buffer (see {@link #bytesToString(byte...)})
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the string within the buffer
+     * @param length the maximum length of the string
+     *
+     * @return the string, up to the first null byte
+     */
+    public static String bufferToString(ByteBuffer buffer, int offset, int length) {
+        int end = 0;
+        while (end < length && buffer.get(offset + end) != 0) {
+            end++;
+        }
+
+        byte[] data = new byte[end];
+        for (int i = 0; i < end; i++) {
+            data[i] = buffer.get(offset + i);
+        }
+
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a 6 byte MAC address directly from a buffer, packed as per {@link #macAddressToLong(String)}
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the MAC address within the buffer
+     *
+     * @return the packed MAC address
+     */
+    public static long bufferToMacAddressLong(ByteBuffer buffer, int offset) {
+        long value = 0;
+
+        for (int i = 0; i < 6; i++) {
+            value = (value << 8) | (buffer.get(offset + i) & 0xff);
+        }
+
+        return value;
+    }
+
     public static byte[] stringToBytesWithPadding(String inputData, int length) {
         byte[] data = new byte[length];
         byte[] stringBytes = inputData.getBytes();
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.stuntguy3000.lifxlansdk.test;
+
+import com.stuntguy3000.lifxlansdk.emulator.Emulator;
+import com.stuntguy3000.lifxlansdk.emulator.VirtualDevice;
+import com.stuntguy3000.lifxlansdk.event.Event;
+import com.stuntguy3000.lifxlansdk.event.EventListener;
+import com.stuntguy3000.lifxlansdk.event.EventType;
+import com.stuntguy3000.lifxlansdk.event.Events;
+import com.stuntguy3000.lifxlansdk.handler.LatencyHistogram;
+import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
+import com.stuntguy3000.lifxlansdk.handler.TransportMetrics;
+import com.stuntguy3000.lifxlansdk.handler.TransportStatistics;
+import com.stuntguy3000.lifxlansdk.helper.DeviceHelper;
+import com.stuntguy3000.lifxlansdk.helper.DeviceListener;
+import com.stuntguy3000.lifxlansdk.helper.DeviceRegistry;
+import com.stuntguy3000.lifxlansdk.messages.get.light.GetColor;
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateLabel;
+import com.stuntguy3000.lifxlansdk.messages.state.light.LightState;
+import com.stuntguy3000.lifxlansdk.object.product.Device;
+import com.stuntguy3000.lifxlansdk.object.product.Light;
+import com.stuntguy3000.lifxlansdk.object.product.MultiZone;
+import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.DeviceType;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.InitializationPolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the SDK against emulated devices, so no real devices are required
+ */
+public class EmulatorTests {
+    private static Emulator emulator;
+    private static VirtualDevice light;
+    private static VirtualDevice strip;
+    private static VirtualDevice legacyStrip;
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        emulator = new Emulator(1);
+        light = emulator.addDevice(27, "Emulated Light");
+        strip = emulator.addDevice(38, "Emulated Beam", 24, 0);
+        legacyStrip = emulator.addDevice(31, "Emulated Strip", 8, 0);
+
+        PacketHandler.setBroadcastAddress(emulator.getAddress());
+        PacketHandler.setBroadcastPort(emulator.getPort());
+        PacketHandler.getTransport().setRateLimit(0);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        emulator.close();
+        PacketHandler.setBroadcastPort(56700);
+        PacketHandler.getTransport().setRateLimit(20);
+    }
+
+    @Test
+    public void findDevices() {
+        List<Device> devices = DeviceHelper.findDevices(emulator.getDevices().size());
+
+        assertEquals(emulator.getDevices().size(), devices.size());
+        for (Device device : devices) {
+            VirtualDevice virtualDevice = emulator.getDevice(device.getMacAddress());
+
+            assertNotNull(virtualDevice);
+            assertEquals(virtualDevice.getLabel(), device.getLabel());
+            assertEquals(virtualDevice.getPort(), device.getServicePort());
+        }
+    }
+
+    @Test
+    public void lightRoundTrip() {
+        Light device = new Light(emulator.getAddress(), light.getMacAddress(), light.getPort());
+        Color color = new Color(1000, 2000, 3000, 4000);
+
+        device.setColor(color, 0, true);
+        device.setPower(true);
+        assertEquals(1000, light.getColor().getHue());
+        assertEquals(4000, light.getColor().getKelvin());
+        assertEquals(65535, light.getPower());
+
+        LightState state = device.getColor();
+        assertEquals(3000, state.getBrightness());
+        assertEquals("Emulated Light", state.getLabel());
+
+        device.setLabel("Renamed Light");
+        assertEquals("Renamed Light", light.getLabel());
+        light.setLabel("Emulated Light");
+    }
+
+    @Test
+    public void multiZoneCount() {
+        MultiZone extended = new MultiZone(new Device(emulator.getAddress(), strip.getMacAddress(), strip.getPort()));
+        MultiZone legacy = new MultiZone(new Device(emulator.getAddress(), legacyStrip.getMacAddress(), legacyStrip.getPort()));
+
+        assertEquals(24, extended.fetchZonesCount());
+        assertEquals(8, legacy.fetchZonesCount());
+    }
+
+    @Test
+    public void multiZoneColors() {
+        MultiZone device = new MultiZone(new Device(emulator.getAddress(), strip.getMacAddress(), strip.getPort()));
+
+        device.setColorZones(2, 5, new Color(500, 0, 65535, 3500), 0, true);
+
+        Color[] zones = strip.getZones();
+        assertEquals(0, zones[1].getHue());
+        assertEquals(500, zones[2].getHue());
+        assertEquals(500, zones[5].getHue());
+        assertEquals(0, zones[6].getHue());
+    }
+
+    @Test
+    public void registryLookup() {
+        Device device = DeviceHelper.getDeviceByLabel("Emulated Strip");
+
+        assertNotNull(device);
+        assertEquals(legacyStrip.getMacAddress(), device.getMacAddress());
+        assertEquals(DeviceType.MULTIZONE, device.getType());
+    }
+
+    @Test
+    public void lossyNetwork() {
+        Light device = new Light(emulator.getAddress(), light.getMacAddress(), light.getPort());
+
+        emulator.setLossRate(0.3);
+        try {
+            // Retransmissions should hide the loss
+            int answered = 0;
+            for (int i = 0; i < 10; i++) {
+                if (device.getColor() != null) {
+                    answered++;
+                }
+            }
+
+            assertTrue(answered >= 8, "only " + answered + " of 10 requests were answered");
+        } finally {
+            emulator.setLossRate(0);
+        }
+    }
+
+    @Test
+    public void transportStatistics() {
+        TransportStatistics statistics = new TransportStatistics();
+        Light device = new Light(new Device(emulator.getAddress(), light.getMacAddress(), light.getPort(), InitializationPolicy.NONE));
+
+        PacketHandler.getTransport().setMetrics(statistics);
+        try {
+            for (int i = 0; i < 5; i++) {
+                device.getColor();
+            }
+
+            // Outcomes are reported as each request completes, which can be just after getColor returns
+            long deadline = System.currentTimeMillis() + 1000;
+            while (statistics.getTotal().getLatency().getCount() < 5 && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+        } finally {
+            PacketHandler.getTransport().setMetrics(TransportMetrics.NONE);
+        }
+
+        TransportStatistics.Statistics deviceStatistics = statistics.getDevice(light.getMacAddress());
+        assertNotNull(deviceStatistics);
+        assertEquals(5, deviceStatistics.getSent());
+        assertEquals(5, deviceStatistics.getReceived());
+        assertEquals(5, deviceStatistics.getLatency().getCount());
+        assertEquals(0, deviceStatistics.getTimeouts());
+        assertEquals(5, statistics.getMessageType(101).getSent());
+        assertEquals(5, statistics.getMessageType(107).getReceived());
+    }
+
+    @Test
+    public void latencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1_000_000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000_000, histogram.getMax());
+        assertEquals(500_000_000, histogram.getValueAtPercentile(50), 500_000_000 * 0.07);
+        assertEquals(990_000_000, histogram.getValueAtPercentile(99), 990_000_000 * 0.07);
+    }
+
+    @Test
+    public void requestEvents() {
+        List<Event> events = new CopyOnWriteArrayList<>();
+        EventListener listener = events::add;
+        Device device = new Device(emulator.getAddress(), light.getMacAddress(), light.getPort(), InitializationPolicy.NONE);
+
+        Events.addListener(listener);
+        List<Packet> packets;
+        try {
+            packets = PacketHandler.sendMessage(new GetColor(), device);
+        } finally {
+            Events.removeListener(listener);
+        }
+
+        long correlationId = packets.get(0).getCorrelationId();
+        assertTrue(correlationId != 0);
+
+        Event send = events.stream().filter(event -> event.getType() == EventType.SEND && event.getCorrelationId() == correlationId).findFirst().orElse(null);
+        Event receive = events.stream().filter(event -> event.getType() == EventType.RECEIVE && event.getCorrelationId() == correlationId).findFirst().orElse(null);
+
+        assertNotNull(send);
+        assertNotNull(receive);
+        assertEquals(101, send.getMessageType());
+        assertEquals(107, receive.getMessageType());
+        assertEquals(light.getMacAddress(), receive.getMacAddress());
+        assertTrue(receive.getNanoTime() >= send.getNanoTime());
+    }
+
+    @Test
+    public void deadlineExpires() {
+        Device device = new Device(emulator.getAddress(), light.getMacAddress(), light.getPort(), InitializationPolicy.NONE);
+        emulator.setLatency(Duration.ofMillis(1000));
+
+        List<Packet> packets;
+        long elapsedMillis;
+        try {
+            long start = System.nanoTime();
+            packets = PacketHandler.sendMessage(new GetColor(), device, Duration.ofMillis(200));
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Requests cut short by their deadline never make the address stale
+            for (int i = 1; i < Device.MAX_MISSED_REPLIES; i++) {
+                PacketHandler.sendMessage(new GetColor(), device, Duration.ofMillis(200));
+            }
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+
+        assertTrue(packets.isEmpty());
+        assertTrue(elapsedMillis >= 190 && elapsedMillis < 800, "Completed after " + elapsedMillis + "ms");
+        assertFalse(device.isIpAddressStale());
+        assertThrows(NullPointerException.class, () -> PacketHandler.sendMessage(new GetColor(), device, (Duration) null));
+    }
+
+    @Test
+    public void transportThreadsNeverBlock() {
+        Device device = new Device(emulator.getAddress(), light.getMacAddress(), light.getPort(), InitializationPolicy.LAZY);
+        emulator.setLatency(Duration.ofMillis(100));
+
+        CompletableFuture<StateLabel> label;
+        try {
+            // Chained onto a request, so the label is read on the receive thread
+            label = PacketHandler.sendMessageAsync(new GetColor(), device).thenApply(packets -> device.getStateLabel());
+            CompletionException exception = assertThrows(CompletionException.class, label::join);
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+
+        assertEquals("Emulated Light", device.getStateLabel().getLabel());
+
+        // Waiting for a reply from the receive thread would stop any more replies being read
+        emulator.setLatency(Duration.ofMillis(100));
+        try {
+            CompletableFuture<List<Packet>> nested = PacketHandler.sendMessageAsync(new GetColor(), device).thenApply(packets -> PacketHandler.sendMessage(new GetColor(), device));
+            CompletionException exception = assertThrows(CompletionException.class, nested::join);
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+
+        MultiZone legacy = new MultiZone(new Device(emulator.getAddress(), legacyStrip.getMacAddress(), legacyStrip.getPort(), InitializationPolicy.LAZY));
+        assertEquals(8, legacy.fetchZonesCountAsync().join());
+    }
+
+    @Test
+    public void rediscovery() throws InterruptedException {
+        DeviceRegistry registry = new DeviceRegistry();
+        Set<String> added = ConcurrentHashMap.newKeySet();
+        Set<String> removed = ConcurrentHashMap.newKeySet();
+        Set<String> changed = ConcurrentHashMap.newKeySet();
+
+        // A device which is never discovered, and the light registered with an outdated port
+        Device missing = new Device(emulator.getAddress(), "d0:73:d5:ff:ff:ff", 56700, InitializationPolicy.NONE);
+        Device moved = new Device(emulator.getAddress(), light.getMacAddress(), 56700, InitializationPolicy.NONE);
+        registry.register(missing);
+        registry.register(moved);
+
+        registry.addListener(new DeviceListener() {
+            @Override
+            public void deviceAdded(Device device) {
+                added.add(device.getMacAddress());
+            }
+
+            @Override
+            public void deviceRemoved(Device device) {
+                removed.add(device.getMacAddress());
+            }
+
+            @Override
+            public void deviceChanged(Device device) {
+                changed.add(device.getMacAddress());
+            }
+        });
+
+        registry.startRediscovery(Duration.ofMillis(100), 2);
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((added.size() < 2 || removed.isEmpty()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            registry.stopRediscovery();
+        }
+
+        assertEquals(Set.of(strip.getMacAddress(), legacyStrip.getMacAddress()), added);
+        assertEquals(Set.of(missing.getMacAddress()), removed);
+        assertTrue(changed.contains(light.getMacAddress()));
+        assertEquals(light.getPort(), moved.getServicePort());
+        assertEquals(emulator.getDevices().size(), registry.getDevices().size());
+        assertEquals(DeviceType.MULTIZONE, registry.getDeviceByLabel("Emulated Strip").getType());
+    }
+
+    @Test
+    public void deviceCacheRoundTrip() throws IOException {
+        DeviceRegistry registry = new DeviceRegistry();
+        Device known = new Device(emulator.getAddress(), light.getMacAddress(), light.getPort());
+        // Never fetched, and not on the network, so saving must not make any requests
+        Device offline = new Device(emulator.getAddress(), "d0:73:d5:ff:ff:fe", 56700, InitializationPolicy.LAZY);
+        Device unaddressed = new Device(null, "d0:73:d5:ff:ff:fd", 56700, InitializationPolicy.LAZY);
+        registry.register(known);
+        registry.register(offline);
+        registry.register(unaddressed);
+
+        Path file = Files.createTempFile("lifx-devices", ".bin");
+        List<Device> loaded;
+        try {
+            registry.save(file);
+            loaded = new DeviceRegistry().load(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertEquals(3, loaded.size());
+
+        Device loadedKnown = loaded.stream().filter(device -> device.getMacAddress().equals(known.getMacAddress())).findFirst().orElseThrow();
+        assertEquals(emulator.getAddress(), loadedKnown.getIpAddress());
+        assertEquals(light.getPort(), loadedKnown.getServicePort());
+        assertEquals("Emulated Light", loadedKnown.getCachedStateLabel().getLabel());
+        assertEquals(known.getCachedStateLocation().getLocation(), loadedKnown.getCachedStateLocation().getLocation());
+        assertEquals(known.getCachedStateGroup().getGroup(), loadedKnown.getCachedStateGroup().getGroup());
+        assertEquals(known.getCachedStateVersion().getProduct(), loadedKnown.getCachedStateVersion().getProduct());
+        assertEquals(DeviceType.LIGHT, loadedKnown.getType());
+
+        Device loadedOffline = loaded.stream().filter(device -> device.getMacAddress().equals(offline.getMacAddress())).findFirst().orElseThrow();
+        assertEquals(emulator.getAddress(), loadedOffline.getIpAddress());
+        assertNull(loadedOffline.getCachedStateLabel());
+        assertNull(loadedOffline.getCachedStateVersion());
+
+        Device loadedUnaddressed = loaded.stream().filter(device -> device.getMacAddress().equals(unaddressed.getMacAddress())).findFirst().orElseThrow();
+        assertNull(loadedUnaddressed.getIpAddress());
+    }
+
+    @Test
+    public void staleAddressSharedBetweenCopies() throws IOException, InterruptedException {
+        int closedPort;
+        try (DatagramSocket socket = new DatagramSocket()) {
+            closedPort = socket.getLocalPort();
+        }
+
+        // Nothing replies on the port, so every request sent to it goes unanswered
+        Device device = new Device(emulator.getAddress(), light.getMacAddress(), closedPort, InitializationPolicy.NONE);
+        Light copy = new Light(device);
+
+        for (int i = 0; i < Device.MAX_MISSED_REPLIES; i++) {
+            assertFalse(device.isIpAddressStale());
+            assertTrue(PacketHandler.sendMessage(new GetColor(), copy, true, 1, 50, 1).isEmpty());
+        }
+
+        assertTrue(await(device::isIpAddressStale));
+
+        // Without a broadcast address to fall back to, the stale address is still used
+        long unicastCount = PacketHandler.getUnicastCount();
+        PacketHandler.setBroadcastAddress(null);
+        try {
+            PacketHandler.sendMessage(new GetColor(), device, true, 1, 50, 1);
+        } finally {
+            PacketHandler.setBroadcastAddress(emulator.getAddress());
+        }
+
+        assertEquals(unicastCount + 1, PacketHandler.getUnicastCount());
+
+        // Otherwise the request is broadcast, and the reply clears the stale address of every copy
+        assertEquals(1, PacketHandler.sendMessage(new GetColor(), device).size());
+        assertTrue(await(() -> !copy.isIpAddressStale()));
+    }
+
+    /**
+     * Wait for a condition to become true
+     *
+     * @return true if the condition became true within two seconds
+     */
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+
+            Thread.sleep(10);
+        }
+
+        return true;
+    }
+}
@@ -11,8 +11,11 @@
 package com.stuntguy3000.lifxlansdk.test;
 
 import com.stuntguy3000.lifxlansdk.handler.PacketHandler;
+import com.stuntguy3000.lifxlansdk.messages.set.light.SetColor;
+import com.stuntguy3000.lifxlansdk.messages.state.light.StateLightPower;
 import com.stuntguy3000.lifxlansdk.object.protocol.FrameAddress;
 import com.stuntguy3000.lifxlansdk.object.protocol.FrameHeader;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
 import com.stuntguy3000.lifxlansdk.object.protocol.ProtocolHeader;
 import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import org.junit.jupiter.api.BeforeAll;
@@ -20,6 +23,7 @@ import org.junit.jupiter.api.Test;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -116,4 +120,60 @@ public class PacketTests {
 
         assertEquals("000000000000000000000000", TypeUtil.bytesToHex(decoded.toBytes()));
     }
+
+    @Test
+    public void encodePacketIntoBuffer() {
+        FrameHeader frameHeader = new FrameHeader();
+        frameHeader.setSource(2);
+
+        FrameAddress frameAddress = new FrameAddress();
+        frameAddress.setTarget("d0:73:d5:43:47:86");
+        frameAddress.setRes_required(false);
+        frameAddress.setAck_required(true);
+        frameAddress.setSequence((short) 1);
+
+        ProtocolHeader protocolHeader = new ProtocolHeader();
+        protocolHeader.setType(102);
+
+        Packet packet = new Packet(frameHeader, frameAddress, protocolHeader, new SetColor(21845, 65535, 65535, 3500, 1024));
+        String expected = "3100001402000000" + "D073D543478600000000000000000201" + "000000000000000066000000" + "005555FFFFFFFFAC0D00040000";
+
+        // Encoded at an offset into a direct buffer
+        ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+        buffer.position(7);
+        packet.encodeInto(buffer);
+
+        byte[] output = new byte[buffer.position() - 7];
+        buffer.flip().position(7);
+        buffer.get(output);
+
+        assertEquals(expected, TypeUtil.bytesToHex(output));
+        assertEquals(expected, TypeUtil.bytesToHex(packet.toBytes()));
+    }
+
+    @Test
+    public void decodePacketFromBuffer() {
+        byte[] received = TypeUtil.hexToBytes("2600001402000000" + "D073D543478600000000000000000201" + "000000000000000076000000" + "FFFF");
+
+        // Decoded at an offset into a larger buffer
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        buffer.position(5);
+        buffer.put(received);
+        buffer.flip().position(5);
+
+        Packet packet = PacketHandler.buildPacket(buffer);
+
+        assertEquals(5, buffer.position());
+        assertEquals(38, packet.getFrameHeader().getSize());
+        assertEquals(2, packet.getFrameHeader().getSource());
+        assertEquals("D0:73:D5:43:47:86", packet.getFrameAddress().getTarget());
+        assertEquals(1, packet.getFrameAddress().getSequence());
+        assertEquals(118, packet.getProtocolHeader().getType());
+        assertEquals(65535, ((StateLightPower) packet.getMessage()).getLevel());
+
+        // The byte array decoder agrees
+        Packet arrayPacket = PacketHandler.buildPacket(received);
+        assertEquals(packet.getFrameAddress().getTarget(), arrayPacket.getFrameAddress().getTarget());
+        assertEquals(65535, ((StateLightPower) arrayPacket.getMessage()).getLevel());
+    }
 }
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2022 Luke Anderson (stuntguy3000)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.stuntguy3000.lifxlansdk.test;
+
+import com.stuntguy3000.lifxlansdk.emulator.Emulator;
+import com.stuntguy3000.lifxlansdk.emulator.VirtualDevice;
+import com.stuntguy3000.lifxlansdk.event.Event;
+import com.stuntguy3000.lifxlansdk.event.EventListener;
+import com.stuntguy3000.lifxlansdk.event.EventType;
+import com.stuntguy3000.lifxlansdk.event.Events;
+import com.stuntguy3000.lifxlansdk.handler.DeliveryMode;
+import com.stuntguy3000.lifxlansdk.handler.Transport;
+import com.stuntguy3000.lifxlansdk.handler.TransportMetrics;
+import com.stuntguy3000.lifxlansdk.messages.get.device.GetLabel;
+import com.stuntguy3000.lifxlansdk.messages.get.discovery.GetService;
+import com.stuntguy3000.lifxlansdk.messages.set.light.SetColor;
+import com.stuntguy3000.lifxlansdk.messages.set.multizone.SetColorZones;
+import com.stuntguy3000.lifxlansdk.messages.state.device.StateLabel;
+import com.stuntguy3000.lifxlansdk.object.protocol.FrameAddress;
+import com.stuntguy3000.lifxlansdk.object.protocol.FrameHeader;
+import com.stuntguy3000.lifxlansdk.object.protocol.Packet;
+import com.stuntguy3000.lifxlansdk.object.protocol.ProtocolHeader;
+import com.stuntguy3000.lifxlansdk.object.protocol.abstracts.Message;
+import com.stuntguy3000.lifxlansdk.object.protocol.enums.MultiZoneApplicationRequest;
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the transport's routing, pacing and retransmission against emulated devices
+ */
+public class TransportTests {
+    private static Emulator emulator;
+    private static VirtualDevice light;
+    private static VirtualDevice strip;
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        emulator = new Emulator(2);
+        light = emulator.addDevice(27, "Transport Light");
+        strip = emulator.addDevice(38, "Transport Strip", 8, 0);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        emulator.close();
+    }
+
+    /**
+     * Build a targeted packet, as PacketHandler would
+     */
+    private static Packet packet(Message message, String macAddress, DeliveryMode deliveryMode) {
+        FrameHeader frameHeader = new FrameHeader();
+        FrameAddress frameAddress = new FrameAddress();
+        ProtocolHeader protocolHeader = new ProtocolHeader();
+
+        frameAddress.setTarget(macAddress);
+        frameAddress.setRes_required(deliveryMode == DeliveryMode.RESPONSE);
+        frameAddress.setAck_required(deliveryMode == DeliveryMode.ACKNOWLEDGEMENT);
+        protocolHeader.setType(message.getType());
+
+        return new Packet(frameHeader, frameAddress, protocolHeader, message);
+    }
+
+    /**
+     * Discover the emulated devices with a single GetService broadcast
+     *
+     * @return the amount of distinct devices which replied
+     */
+    private static long discover(Transport transport, Duration quietWindow, int expectedDevices, Duration deadline) {
+        Packet packet = packet(new GetService(), "00:00:00:00:00:00", DeliveryMode.RESPONSE);
+        packet.getFrameHeader().setTagged(true);
+
+        List<Packet> replies = transport.discover(packet, emulator.getAddress(), emulator.getPort(), 1, Duration.ZERO, quietWindow, expectedDevices, deadline).join();
+
+        return replies.stream().map(reply -> reply.getFrameAddress().getTarget()).distinct().count();
+    }
+
+    /**
+     * Wait for a condition to become true
+     *
+     * @return true if the condition became true within two seconds
+     */
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+
+            Thread.sleep(10);
+        }
+
+        return true;
+    }
+
+    @Test
+    public void foreignRepliesDropped() throws IOException {
+        emulator.setLatency(Duration.ofMillis(200));
+
+        try (Transport transport = new Transport(); DatagramSocket socket = new DatagramSocket()) {
+            Packet request = packet(new GetLabel(), light.getMacAddress(), DeliveryMode.RESPONSE);
+            CompletableFuture<List<Packet>> future = transport.request(request, emulator.getAddress(), light.getPort(), 1, 1000, 1);
+
+            // Replies meant for other clients, matching the request in all but source, arrive before the device replies
+            Message foreignLabel = new Message(25) {
+                @Override
+                public byte[] toBytes() {
+                    return TypeUtil.stringToBytesWithPadding("Foreign Label", 32);
+                }
+            };
+
+            for (int foreignSource : new int[]{0, 1, transport.getSource() + 1}) {
+                Packet reply = packet(foreignLabel, light.getMacAddress(), DeliveryMode.NONE);
+                reply.getFrameHeader().setSource(foreignSource);
+                reply.getFrameAddress().setSequence(request.getFrameAddress().getSequence());
+
+                byte[] data = reply.toBytes();
+                socket.send(new DatagramPacket(data, data.length, emulator.getAddress(), transport.getLocalPort()));
+            }
+
+            List<Packet> replies = future.join();
+            assertEquals(1, replies.size());
+            assertEquals("Transport Light", ((StateLabel) replies.get(0).getMessage()).getLabel());
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+    }
+
+    @Test
+    public void packetsPaced() throws IOException, InterruptedException {
+        List<Long> writtenNanos = new CopyOnWriteArrayList<>();
+
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(20);
+            transport.setRateLimitBurst(5);
+            transport.setMetrics(new TransportMetrics() {
+                @Override
+                public void packetSent(long target, int messageType, boolean retransmission) {
+                    writtenNanos.add(System.nanoTime());
+                }
+            });
+
+            for (int i = 0; i < 15; i++) {
+                transport.send(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), light.getPort());
+            }
+
+            // The burst is written straight away, the rest at the rate limit
+            assertEquals(5, writtenNanos.size());
+
+            await(() -> writtenNanos.size() == 15);
+        }
+
+        assertEquals(15, writtenNanos.size());
+
+        // 10 packets beyond the burst at 20 per second take at least 500ms, less some timer slack
+        long pacedMillis = TimeUnit.NANOSECONDS.toMillis(writtenNanos.get(14) - writtenNanos.get(0));
+        assertTrue(pacedMillis >= 450, "15 packets were written in " + pacedMillis + "ms");
+    }
+
+    @Test
+    public void slowMetricsNeverBlockOtherSenders() throws Exception {
+        CountDownLatch reporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> writtenNanos = new CopyOnWriteArrayList<>();
+
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(0);
+            transport.setMetrics(new TransportMetrics() {
+                @Override
+                public void packetSent(long target, int messageType, boolean retransmission) {
+                    writtenNanos.add(System.nanoTime());
+                    reporting.countDown();
+
+                    try {
+                        release.await();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            // The first sender is held up reporting its packet
+            CompletableFuture<Void> slowSender = CompletableFuture.runAsync(() -> transport.send(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), light.getPort()));
+            assertTrue(reporting.await(2, TimeUnit.SECONDS));
+
+            // Another sender to the same device only queues its packet, rather than waiting for the first
+            CompletableFuture.runAsync(() -> transport.send(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), light.getPort())).get(2, TimeUnit.SECONDS);
+
+            // ...which the first sender then writes
+            release.countDown();
+            slowSender.get(2, TimeUnit.SECONDS);
+            assertTrue(await(() -> writtenNanos.size() == 2));
+        }
+    }
+
+    @Test
+    public void queuedWriteSuperseded() throws IOException, InterruptedException {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(5);
+            transport.setRateLimitBurst(1);
+            transport.setMetrics(new TransportMetrics() {
+                @Override
+                public void packetSent(long target, int messageType, boolean retransmission) {
+                    written.add(messageType);
+                }
+            });
+
+            // Use up the burst, so both writes are queued together
+            transport.send(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), light.getPort());
+            CompletableFuture<List<Packet>> older = transport.request(packet(new SetColor(4000, 0, 65535, 3500, 0), light.getMacAddress(), DeliveryMode.ACKNOWLEDGEMENT), emulator.getAddress(), light.getPort(), 1, 1000, 3);
+            CompletableFuture<List<Packet>> newer = transport.request(packet(new SetColor(5000, 0, 65535, 3500, 0), light.getMacAddress(), DeliveryMode.ACKNOWLEDGEMENT), emulator.getAddress(), light.getPort(), 1, 1000, 3);
+
+            // Whoever awaits the older write is answered by the newer one, which is the only one written
+            assertEquals(newer.join(), older.join());
+            assertEquals(List.of(23, 102), written);
+            assertEquals(5000, light.getColor().getHue());
+        }
+    }
+
+    @Test
+    public void retransmissionNeverReplacesNewerWrite() throws IOException, InterruptedException {
+        emulator.setLatency(Duration.ofMillis(400));
+
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(5);
+            transport.setRateLimitBurst(1);
+
+            // The request goes unanswered long enough to be retransmitted while the newer write is still queued
+            Packet older = packet(new SetColor(1000, 0, 65535, 3500, 0), light.getMacAddress(), DeliveryMode.ACKNOWLEDGEMENT);
+            CompletableFuture<List<Packet>> future = transport.request(older, emulator.getAddress(), light.getPort(), 1, 100, 5);
+            transport.send(packet(new SetColor(2000, 0, 65535, 3500, 0), light.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), light.getPort());
+
+            assertEquals(1, future.join().size());
+            assertTrue(await(() -> light.getColor().getHue() == 2000), "the older write replaced the newer one");
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+    }
+
+    @Test
+    public void applyOnlyKeepsStagedZones() throws IOException, InterruptedException {
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(5);
+            transport.setRateLimitBurst(1);
+
+            // Use up the burst, so both writes are queued together
+            transport.send(packet(new GetLabel(), strip.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), strip.getPort());
+            transport.send(packet(new SetColorZones(0, 3, 3000, 0, 65535, 3500, 0, MultiZoneApplicationRequest.NO_APPLY), strip.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), strip.getPort());
+            transport.send(packet(new SetColorZones(0, 3, 0, 0, 0, 0, 0, MultiZoneApplicationRequest.APPLY_ONLY), strip.getMacAddress(), DeliveryMode.NONE), emulator.getAddress(), strip.getPort());
+
+            assertTrue(await(() -> strip.getZones()[3].getHue() == 3000), "the staged zones were never applied");
+            assertEquals(0, strip.getZones()[4].getHue());
+        }
+    }
+
+    @Test
+    public void adaptiveTimeoutExceedsInitialTimeout() throws IOException {
+        emulator.setLatency(Duration.ofMillis(120));
+
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(0);
+
+            // A few generous requests measure the round trip time, leaving a timeout of roughly 200ms
+            for (int i = 0; i < 5; i++) {
+                transport.request(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.RESPONSE), emulator.getAddress(), light.getPort(), 1, 500, 1).join();
+            }
+
+            assertTrue(transport.getSmoothedRttNanos(light.getMacAddress()) > 0);
+
+            // The first attempt then waits longer than a much shorter initial timeout, within the 200ms overall budget
+            List<Packet> replies = transport.request(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.RESPONSE), emulator.getAddress(), light.getPort(), 1, 50, 4).join();
+
+            assertEquals(1, replies.size());
+            assertEquals(0, transport.getRetransmissionCount());
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+    }
+
+    @Test
+    public void backoffBoundedByRequestBudget() throws IOException {
+        emulator.setLatency(Duration.ofMillis(120));
+
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(0);
+
+            for (int i = 0; i < 5; i++) {
+                transport.request(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.RESPONSE), emulator.getAddress(), light.getPort(), 1, 500, 1).join();
+            }
+
+            int closedPort;
+            try (DatagramSocket socket = new DatagramSocket()) {
+                closedPort = socket.getLocalPort();
+            }
+
+            // The measured device stops answering, the request gives up within 100ms × 5 rather than backing off for
+            // several seconds
+            long start = System.nanoTime();
+            List<Packet> replies = transport.request(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.RESPONSE), emulator.getAddress(), closedPort, 1, 100, 5).join();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertTrue(replies.isEmpty());
+            assertTrue(elapsedMillis < 1500, "Gave up after " + elapsedMillis + "ms");
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+    }
+
+    @Test
+    public void discoveryWaitsForQuietWindow() throws IOException {
+        emulator.setLatency(Duration.ofMillis(150));
+
+        try (Transport transport = new Transport()) {
+            long start = System.nanoTime();
+            long devices = discover(transport, Duration.ofMillis(300), 0, Duration.ofSeconds(5));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // The window restarts when the devices reply, so it ends roughly 450ms in
+            assertEquals(2, devices);
+            assertTrue(elapsedMillis >= 440, "Completed after " + elapsedMillis + "ms");
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+    }
+
+    @Test
+    public void discoveryCompletesWithExpectedDevices() throws IOException {
+        try (Transport transport = new Transport()) {
+            long start = System.nanoTime();
+            long devices = discover(transport, Duration.ofSeconds(3), 2, Duration.ofSeconds(5));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Both devices replied, so the request completes without waiting out the quiet window
+            assertEquals(2, devices);
+            assertTrue(elapsedMillis < 3000, "Completed after " + elapsedMillis + "ms");
+        }
+    }
+
+    @Test
+    public void discoveryBoundedByDeadline() throws IOException {
+        emulator.setLatency(Duration.ofMillis(100));
+
+        try (Transport transport = new Transport()) {
+            long start = System.nanoTime();
+            long devices = discover(transport, Duration.ofSeconds(3), 0, Duration.ofMillis(400));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Replies before the deadline are kept, and the request ends before the quiet window would
+            assertEquals(2, devices);
+            assertTrue(elapsedMillis >= 390 && elapsedMillis < 3000, "Completed after " + elapsedMillis + "ms");
+        } finally {
+            emulator.setLatency(Duration.ZERO);
+        }
+    }
+
+    @Test
+    public void failingMetricsNeverStopTheTransport() throws IOException {
+        List<Event> errors = new CopyOnWriteArrayList<>();
+        EventListener listener = event -> {
+            if (event.getType() == EventType.ERROR) {
+                errors.add(event);
+            }
+        };
+
+        Events.addListener(listener);
+        try (Transport transport = new Transport()) {
+            transport.setRateLimit(0);
+            transport.setMetrics(new TransportMetrics() {
+                @Override
+                public void packetSent(long target, int messageType, boolean retransmission) {
+                    throw new IllegalStateException("Broken metrics");
+                }
+
+                @Override
+                public void packetReceived(long target, int messageType) {
+                    throw new IllegalStateException("Broken metrics");
+                }
+            });
+
+            // Every request is still sent, answered and completed
+            for (int i = 0; i < 3; i++) {
+                List<Packet> replies = transport.request(packet(new GetLabel(), light.getMacAddress(), DeliveryMode.RESPONSE), emulator.getAddress(), light.getPort(), 1, 250, 3).join();
+
+                assertEquals(1, replies.size());
+                assertEquals(0, transport.getRetransmissionCount());
+            }
+        } finally {
+            Events.removeListener(listener);
+        }
+
+        assertTrue(errors.size() >= 6);
+    }
+}
@@ -11,6 +11,7 @@
 package com.stuntguy3000.lifxlansdk.test;
 
 import com.stuntguy3000.lifxlansdk.object.protocol.Color;
+import com.stuntguy3000.lifxlansdk.util.TypeUtil;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -39,4 +40,11 @@ public class TypeUtilTests {
         assertEquals(Color.GREEN.toString(), Color.fromRGB(0, 255, 0).toString());
         assertEquals(Color.BLUE.toString(), Color.fromRGB(0, 0, 255).toString());
     }
+
+    @Test
+    public void testMacAddressToLong() {
+        assertEquals(0xd073d5434786L, TypeUtil.macAddressToLong("d0:73:d5:43:47:86"));
+        assertEquals(0xd073d5434786L, TypeUtil.macAddressToLong("D073D5434786"));
+        assertEquals(0L, TypeUtil.macAddressToLong("00:00:00:00:00:00"));
+    }
 }